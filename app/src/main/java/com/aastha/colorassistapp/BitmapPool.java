@@ -0,0 +1,297 @@
+package com.aastha.colorassistapp;
+
+import android.content.ComponentCallbacks2;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BitmapPool recycles mutable ARGB_8888 bitmaps between decodes and simulation
+ * renders so switching images or modes does not keep allocating multi-megabyte
+ * buffers. Pooled bitmaps are bucketed by power-of-two allocation size and resized
+ * in place with Bitmap.reconfigure.
+ *
+ * A bitmap that is still on screen can be pinned; handing it back to the pool then
+ * only takes effect once every pin has been released. Everything is thread-safe.
+ */
+public final class BitmapPool implements ComponentCallbacks2 {
+
+    private static final String TAG = "BitmapPool";
+    private static final int BUCKETS = 32;
+
+    private static BitmapPool instance;
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Bitmap>[] buckets = new ArrayDeque[BUCKETS];
+    // Pooled bitmaps oldest first, for evicting over the cap
+    private final ArrayDeque<Bitmap> order = new ArrayDeque<>();
+    private final Pins<Bitmap> pins = new Pins<>();
+    private final long maxBytes;
+    private long pooledBytes;
+
+    private int hits;
+    private int misses;
+    private int evictions;
+
+    BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Process-wide pool, registered for trim callbacks on first use.
+     */
+    public static synchronized BitmapPool getInstance(Context context) {
+        if (instance == null) {
+            // An eighth of the heap holds a few full-size charts worth of buffers
+            instance = new BitmapPool(Runtime.getRuntime().maxMemory() / 8);
+            context.getApplicationContext().registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * A mutable ARGB_8888 bitmap of exactly this size, reused when possible. Its
+     * contents are undefined; callers are expected to overwrite every pixel.
+     */
+    public Bitmap get(int width, int height) {
+        Bitmap reused = take(width, height);
+        return reused != null ? reused : Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Hands a bitmap back for reuse. The caller must not touch it afterwards. Immutable,
+     * recycled or non-ARGB_8888 bitmaps are ignored.
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()
+                || bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            return;
+        }
+        if (pins.deferIfPinned(bitmap)) return;
+        if (order.contains(bitmap)) return;
+
+        int size = bitmap.getAllocationByteCount();
+        if (size > maxBytes) return;
+        buckets[bucket(size)].addLast(bitmap);
+        order.addLast(bitmap);
+        pooledBytes += size;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Marks a bitmap as in use (e.g. on screen) so put() defers returning it. Pins are
+     * counted: each pin() needs its own unpin().
+     */
+    public synchronized void pin(Bitmap bitmap) {
+        if (bitmap != null) pins.pin(bitmap);
+    }
+
+    public synchronized void unpin(Bitmap bitmap) {
+        if (bitmap != null && pins.unpin(bitmap)) {
+            put(bitmap);
+        }
+    }
+
+    /**
+     * Decodes an image with inSampleSize, into a pooled bitmap when one is large enough.
+     * The result is mutable, so it can be handed back with put() once replaced.
+     */
+    public Bitmap decode(ContentResolver resolver, Uri uri, int sampleSize) throws IOException {
+        return decode(resolver, uri, readBounds(resolver, uri), sampleSize);
+    }
+
+    /**
+     * Same as decode(resolver, uri, sampleSize) when the bounds were already read with
+     * readBounds.
+     */
+    public Bitmap decode(ContentResolver resolver, Uri uri, BitmapFactory.Options bounds, int sampleSize)
+            throws IOException {
+        int sample = Math.max(1, sampleSize);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sample;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inBitmap = take((bounds.outWidth + sample - 1) / sample, (bounds.outHeight + sample - 1) / sample);
+
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        } catch (IllegalArgumentException e) {
+            // The decoder could not reuse the bitmap (e.g. unsupported format); decode fresh
+            put(options.inBitmap);
+            options.inBitmap = null;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                decoded = BitmapFactory.decodeStream(in, null, options);
+            }
+        }
+        if (decoded == null) {
+            put(options.inBitmap);
+            throw new IOException("Could not decode " + uri);
+        }
+        return decoded;
+    }
+
+    /**
+     * Reads only the image header; outWidth and outHeight hold the full size.
+     */
+    public static BitmapFactory.Options readBounds(ContentResolver resolver, Uri uri) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Could not read image bounds for " + uri);
+        }
+        return bounds;
+    }
+
+    public synchronized int getHitCount() {
+        return hits;
+    }
+
+    public synchronized int getMissCount() {
+        return misses;
+    }
+
+    public synchronized int getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    @Override
+    public synchronized String toString() {
+        int lookups = hits + misses;
+        int hitPercent = lookups != 0 ? 100 * hits / lookups : 0;
+        return String.format("BitmapPool[bytes=%d/%d,hits=%d,misses=%d,evictions=%d,hitRate=%d%%]",
+                pooledBytes, maxBytes, hits, misses, evictions, hitPercent);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            synchronized (this) {
+                trimToSize(maxBytes / 2);
+            }
+        }
+        Log.d(TAG, "Trimmed at level " + level + ": " + this);
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+
+    /**
+     * Removes a pooled bitmap that can hold width x height ARGB_8888 pixels and resizes
+     * it, or returns null. Looks in the exact bucket first, then one up, so at most
+     * twice the needed memory is ever handed out.
+     */
+    private synchronized Bitmap take(int width, int height) {
+        long needed = (long) width * height * 4;
+        if (needed <= 0 || needed > Integer.MAX_VALUE) {
+            misses++;
+            return null;
+        }
+        int first = bucket((int) needed);
+        for (int b = first; b <= Math.min(first + 1, BUCKETS - 1); b++) {
+            for (Iterator<Bitmap> it = buckets[b].iterator(); it.hasNext(); ) {
+                Bitmap candidate = it.next();
+                if (candidate.getAllocationByteCount() < needed) continue;
+                it.remove();
+                order.remove(candidate);
+                pooledBytes -= candidate.getAllocationByteCount();
+                candidate.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+                hits++;
+                return candidate;
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    private void trimToSize(long size) {
+        while (pooledBytes > size && !order.isEmpty()) {
+            Bitmap eldest = order.removeFirst();
+            int allocation = eldest.getAllocationByteCount();
+            buckets[bucket(allocation)].remove(eldest);
+            pooledBytes -= allocation;
+            evictions++;
+            eldest.recycle();
+        }
+    }
+
+    /**
+     * Pin counts by identity, and which pinned objects were handed back meanwhile.
+     * Not thread-safe; the pool guards it.
+     */
+    static final class Pins<T> {
+
+        private final Map<T, Integer> counts = new IdentityHashMap<>();
+        private final Set<T> returnWhenUnpinned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void pin(T item) {
+            Integer count = counts.get(item);
+            counts.put(item, count == null ? 1 : count + 1);
+        }
+
+        /**
+         * Releases one pin. True when that was the last one and the item was handed back
+         * while pinned, so it should be returned now.
+         */
+        boolean unpin(T item) {
+            Integer count = counts.get(item);
+            if (count == null) return false;
+            if (count > 1) {
+                counts.put(item, count - 1);
+                return false;
+            }
+            counts.remove(item);
+            return returnWhenUnpinned.remove(item);
+        }
+
+        /**
+         * True, and remembers the item for its last unpin, when it is pinned.
+         */
+        boolean deferIfPinned(T item) {
+            if (!counts.containsKey(item)) return false;
+            returnWhenUnpinned.add(item);
+            return true;
+        }
+    }
+
+    // Bucket b holds allocations in (2^(b-1), 2^b]
+    private static int bucket(int bytes) {
+        return Math.min(BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(Math.max(1, bytes) - 1));
+    }
+}
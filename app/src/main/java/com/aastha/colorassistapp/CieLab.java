@@ -0,0 +1,116 @@
+package com.aastha.colorassistapp;
+
+/**
+ * CieLab converts sRGB colors to CIELAB (D65 white) and measures the CIEDE2000
+ * difference between them, the distance that matches how far apart people see two
+ * colors, also for dark and desaturated ones. Conversion writes into a caller's array, so
+ * naming a color every frame allocates nothing.
+ */
+public final class CieLab {
+
+    // 25^7, where the chroma weighting of CIEDE2000 turns over
+    static final double POW25_7 = 6103515625.0;
+
+    private static final double WHITE_X = 0.95047;
+    private static final double WHITE_Z = 1.08883;
+    private static final double EPSILON = 216.0 / 24389;
+    private static final double KAPPA = 24389.0 / 27;
+
+    // sRGB channel byte to linear light
+    private static final double[] LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double c = i / 255.0;
+            LINEAR[i] = c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    private CieLab() {}
+
+    /**
+     * Writes L*, a* and b* of an ARGB color to out[offset], out[offset + 1] and
+     * out[offset + 2]; alpha is ignored.
+     */
+    public static void fromColor(int color, double[] out, int offset) {
+        double r = LINEAR[(color >> 16) & 0xFF];
+        double g = LINEAR[(color >> 8) & 0xFF];
+        double b = LINEAR[color & 0xFF];
+        double x = f((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / WHITE_X);
+        double y = f(0.2126729 * r + 0.7151522 * g + 0.0721750 * b);
+        double z = f((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / WHITE_Z);
+        out[offset] = 116 * y - 16;
+        out[offset + 1] = 500 * (x - y);
+        out[offset + 2] = 200 * (y - z);
+    }
+
+    /**
+     * CIEDE2000 color difference of two L*a*b* colors, with unit weights.
+     */
+    public static double deltaE2000(double l1, double a1, double b1, double l2, double a2, double b2) {
+        double meanChroma = (Math.sqrt(a1 * a1 + b1 * b1) + Math.sqrt(a2 * a2 + b2 * b2)) / 2;
+        double meanChroma7 = Math.pow(meanChroma, 7);
+        double g = 0.5 * (1 - Math.sqrt(meanChroma7 / (meanChroma7 + POW25_7)));
+        double a1p = (1 + g) * a1;
+        double a2p = (1 + g) * a2;
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+        double h1p = hueAngle(b1, a1p);
+        double h2p = hueAngle(b2, a2p);
+
+        double deltaL = l2 - l1;
+        double deltaC = c2p - c1p;
+        double deltaHue = 0;
+        if (c1p * c2p != 0) {
+            deltaHue = h2p - h1p;
+            if (deltaHue > 180) deltaHue -= 360;
+            else if (deltaHue < -180) deltaHue += 360;
+        }
+        double deltaH = 2 * Math.sqrt(c1p * c2p) * Math.sin(Math.toRadians(deltaHue / 2));
+
+        double meanL = (l1 + l2) / 2;
+        double meanCp = (c1p + c2p) / 2;
+        double meanHue;
+        if (c1p * c2p == 0) {
+            meanHue = h1p + h2p;
+        } else if (Math.abs(h1p - h2p) <= 180) {
+            meanHue = (h1p + h2p) / 2;
+        } else {
+            meanHue = (h1p + h2p + (h1p + h2p < 360 ? 360 : -360)) / 2;
+        }
+
+        double t = 1 - 0.17 * Math.cos(Math.toRadians(meanHue - 30))
+                + 0.24 * Math.cos(Math.toRadians(2 * meanHue))
+                + 0.32 * Math.cos(Math.toRadians(3 * meanHue + 6))
+                - 0.20 * Math.cos(Math.toRadians(4 * meanHue - 63));
+        double deltaTheta = 30 * Math.exp(-Math.pow((meanHue - 275) / 25, 2));
+        double rt = -Math.sin(Math.toRadians(2 * deltaTheta)) * rotationChroma(meanCp);
+
+        double termL = deltaL / lightnessWeight(meanL - 50);
+        double termC = deltaC / (1 + 0.045 * meanCp);
+        double termH = deltaH / (1 + 0.015 * meanCp * t);
+        return Math.sqrt(termL * termL + termC * termC + termH * termH + rt * termC * termH);
+    }
+
+    // S_L, for a mean lightness this far from 50; grows with the distance
+    static double lightnessWeight(double fromMiddle) {
+        double d2 = fromMiddle * fromMiddle;
+        return 1 + 0.015 * d2 / Math.sqrt(20 + d2);
+    }
+
+    // R_C, the chroma factor of the blue rotation term; grows with the chroma
+    static double rotationChroma(double meanChroma) {
+        double c7 = Math.pow(meanChroma, 7);
+        return 2 * Math.sqrt(c7 / (c7 + POW25_7));
+    }
+
+    private static double hueAngle(double b, double a) {
+        if (a == 0 && b == 0) return 0;
+        double h = Math.toDegrees(Math.atan2(b, a));
+        return h < 0 ? h + 360 : h;
+    }
+
+    private static double f(double t) {
+        return t > EPSILON ? Math.cbrt(t) : (KAPPA * t + 16) / 116;
+    }
+}
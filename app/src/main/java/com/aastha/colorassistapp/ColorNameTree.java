@@ -0,0 +1,274 @@
+package com.aastha.colorassistapp;
+
+import android.content.Context;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ColorNameTree names a color after the perceptually closest entry of a color
+ * dictionary, by CIEDE2000 in CIELAB. The entries sit in a k-d tree over L*, a* and b*
+ * whose nodes keep their bounding boxes; a query descends into the nearer child first
+ * and skips every box whose lower bound on CIEDE2000 cannot beat the best match so far,
+ * so it touches a small part of even a large dictionary. Results are those of a linear
+ * scan, ties going to the earlier entry.
+ *
+ * The dictionary ships as the asset color_names.csv, one "Name,#RRGGBB" per line: the
+ * CSS and other common names, then a couple of thousand systematic ones such as
+ * "Dark Grayish Cerulean".
+ * Queries reuse scratch state: use one thread at a time.
+ */
+public final class ColorNameTree {
+
+    public static final String ASSET = "color_names.csv";
+
+    private static final int LEAF_SIZE = 8;
+    // sin(60 degrees), the most the blue rotation term of CIEDE2000 can turn
+    private static final double MAX_ROTATION = Math.sqrt(3) / 2;
+    // Keeps float rounding in a bound from pruning an exact tie
+    private static final double SLACK = 1e-9;
+
+    private static ColorNameTree instance;
+
+    private final String[] names;
+    private final int[] colors;
+    // Entries in tree order: their dictionary index and L*, a*, b*
+    private final int[] order;
+    private final double[] lab;
+    // Per node: entry range, right child (-1 for leaves, the left child is node + 1) and
+    // bounding box as L*, a*, b* minimums then maximums
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    private final int[] nodeRight;
+    private final double[] nodeBox;
+    private int nodeCount;
+
+    private final double[] query = new double[3];
+    private double queryChroma;
+    private int bestIndex;
+    private double bestDistance;
+
+    private ColorNameTree(String[] names, int[] colors) {
+        int n = names.length;
+        this.names = names;
+        this.colors = colors;
+        this.order = new int[n];
+        this.lab = new double[3 * n];
+        double[] points = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            CieLab.fromColor(colors[i], points, 3 * i);
+        }
+        int maxNodes = Math.max(1, 2 * n - 1);
+        nodeStart = new int[maxNodes];
+        nodeEnd = new int[maxNodes];
+        nodeRight = new int[maxNodes];
+        nodeBox = new double[6 * maxNodes];
+        if (n > 0) build(points, 0, n);
+        for (int k = 0; k < n; k++) {
+            System.arraycopy(points, 3 * order[k], lab, 3 * k, 3);
+        }
+    }
+
+    /**
+     * The app's dictionary, parsed and indexed on first use; call it off the main thread.
+     */
+    public static synchronized ColorNameTree getInstance(Context context) throws IOException {
+        if (instance == null) {
+            try (InputStream in = context.getApplicationContext().getAssets().open(ASSET)) {
+                instance = load(in);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Reads a dictionary of "Name,#RRGGBB" lines; blank lines and lines starting with #
+     * are skipped.
+     */
+    public static ColorNameTree load(InputStream in) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Integer> colors = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            int comma = line.lastIndexOf(',');
+            String hex = comma > 0 ? line.substring(comma + 1).trim() : "";
+            if (hex.length() != 7 || hex.charAt(0) != '#') {
+                throw new IOException("Bad color name entry on line " + lineNumber + ": " + line);
+            }
+            try {
+                colors.add(0xFF000000 | Integer.parseInt(hex.substring(1), 16));
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad color on line " + lineNumber + ": " + hex, e);
+            }
+            names.add(line.substring(0, comma).trim());
+        }
+        int[] colorArray = new int[colors.size()];
+        for (int i = 0; i < colorArray.length; i++) {
+            colorArray[i] = colors.get(i);
+        }
+        return new ColorNameTree(names.toArray(new String[0]), colorArray);
+    }
+
+    static ColorNameTree of(String[] names, int[] colors) {
+        return new ColorNameTree(names, colors);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Dictionary index of the entry closest to color by CIEDE2000, or -1 when the
+     * dictionary is empty.
+     */
+    public int nearest(int color) {
+        bestIndex = -1;
+        bestDistance = Double.MAX_VALUE;
+        if (names.length == 0) return -1;
+        CieLab.fromColor(color, query, 0);
+        queryChroma = Math.sqrt(query[1] * query[1] + query[2] * query[2]);
+        search(0, lowerBound(0));
+        return bestIndex;
+    }
+
+    /**
+     * CIEDE2000 distance of the last nearest() match.
+     */
+    public double lastDistance() {
+        return bestDistance;
+    }
+
+    private void search(int node, double bound) {
+        if (bound - SLACK > bestDistance) return;
+        int right = nodeRight[node];
+        if (right < 0) {
+            for (int k = nodeStart[node]; k < nodeEnd[node]; k++) {
+                double d = CieLab.deltaE2000(query[0], query[1], query[2], lab[3 * k], lab[3 * k + 1], lab[3 * k + 2]);
+                int index = order[k];
+                if (d < bestDistance || (d == bestDistance && index < bestIndex)) {
+                    bestDistance = d;
+                    bestIndex = index;
+                }
+            }
+            return;
+        }
+        int left = node + 1;
+        double leftBound = lowerBound(left);
+        double rightBound = lowerBound(right);
+        if (leftBound <= rightBound) {
+            search(left, leftBound);
+            search(right, rightBound);
+        } else {
+            search(right, rightBound);
+            search(left, leftBound);
+        }
+    }
+
+    // No entry in the node's box is closer to the query than this. CIEDE2000 weighs the
+    // lightness difference by at most 1 / S_L and the a*b* distance, which a' only
+    // stretches, by at least (1 - |R_T| / 2) / S_C^2 when squared; S_L, S_C and R_C grow
+    // with distance from L* 50 and with chroma, so their box maximums give the bound.
+    private double lowerBound(int node) {
+        int box = 6 * node;
+        double l = query[0];
+        double dl = gap(l, nodeBox[box], nodeBox[box + 3]);
+        double da = gap(query[1], nodeBox[box + 1], nodeBox[box + 4]);
+        double db = gap(query[2], nodeBox[box + 2], nodeBox[box + 5]);
+
+        double maxA = Math.max(Math.abs(nodeBox[box + 1]), Math.abs(nodeBox[box + 4]));
+        double maxB = Math.max(Math.abs(nodeBox[box + 2]), Math.abs(nodeBox[box + 5]));
+        // a' is a* scaled by at most 1.5, so the mean C' is at most 0.75 (C1 + C2)
+        double meanChroma = 0.75 * (queryChroma + Math.sqrt(maxA * maxA + maxB * maxB));
+        double sc = 1 + 0.045 * meanChroma;
+        double rotation = 1 - CieLab.rotationChroma(meanChroma) * MAX_ROTATION / 2;
+        double sl = CieLab.lightnessWeight(Math.max(Math.abs((l + nodeBox[box]) / 2 - 50),
+                Math.abs((l + nodeBox[box + 3]) / 2 - 50)));
+
+        double termL = dl / sl;
+        return Math.sqrt(termL * termL + rotation * (da * da + db * db) / (sc * sc));
+    }
+
+    private int build(double[] points, int start, int end) {
+        int node = nodeCount++;
+        nodeStart[node] = start;
+        nodeEnd[node] = end;
+        int box = 6 * node;
+        for (int d = 0; d < 3; d++) {
+            nodeBox[box + d] = Double.MAX_VALUE;
+            nodeBox[box + 3 + d] = -Double.MAX_VALUE;
+        }
+        for (int k = start; k < end; k++) {
+            for (int d = 0; d < 3; d++) {
+                double v = points[3 * order[k] + d];
+                nodeBox[box + d] = Math.min(nodeBox[box + d], v);
+                nodeBox[box + 3 + d] = Math.max(nodeBox[box + 3 + d], v);
+            }
+        }
+        if (end - start <= LEAF_SIZE) {
+            nodeRight[node] = -1;
+            return node;
+        }
+
+        // Split the widest axis at the median
+        int axis = 0;
+        for (int d = 1; d < 3; d++) {
+            if (nodeBox[box + 3 + d] - nodeBox[box + d] > nodeBox[box + 3 + axis] - nodeBox[box + axis]) axis = d;
+        }
+        int mid = (start + end) >>> 1;
+        select(points, axis, start, end - 1, mid);
+        build(points, start, mid);
+        nodeRight[node] = build(points, mid, end);
+        return node;
+    }
+
+    // Partially sorts order[left..right] by the axis so that position k holds its median
+    private void select(double[] points, int axis, int left, int right, int k) {
+        while (left < right) {
+            double pivot = points[3 * order[(left + right) >>> 1] + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (points[3 * order[i] + axis] < pivot) i++;
+                while (points[3 * order[j] + axis] > pivot) j--;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Distance from x to [low, high]
+    private static double gap(double x, double low, double high) {
+        return x < low ? low - x : x > high ? x - high : 0;
+    }
+}
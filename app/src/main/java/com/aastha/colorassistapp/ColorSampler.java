@@ -0,0 +1,179 @@
+package com.aastha.colorassistapp;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+/**
+ * ColorSampler picks the mean color around a point of the image shown in Home and
+ * Marine. It maps touches on a fitCenter ImageView to bitmap pixels, averages a disc of
+ * the chosen radius and formats the result as hex, all into reused buffers so a drag that
+ * samples every frame produces no garbage.
+ *
+ * Once the image's IntegralImage is built in the background a sample is a few lookups;
+ * until then the disc is read from the bitmap into a window buffer. Main thread only.
+ */
+public final class ColorSampler {
+
+    public static final int MAX_RADIUS = IntegralImage.MAX_RADIUS;
+    // Returned by mapFitCenter for points in the letterbox around the image
+    public static final long OUTSIDE = -1L;
+    public static final int HEX_LENGTH = 7;
+
+    private static final String TAG = "ColorSampler";
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final ImageLoader loader;
+    private final int[] window = new int[(2 * MAX_RADIUS + 1) * (2 * MAX_RADIUS + 1)];
+    private final char[] hex = new char[HEX_LENGTH];
+
+    private Bitmap bitmap;
+    private IntegralImage integralImage;
+    private ImageLoader.Request integralRequest;
+    private int radius = 3;
+
+    public ColorSampler(ImageLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Samples bitmap from now on and starts building its summed-area table.
+     */
+    public void setBitmap(Bitmap bitmap) {
+        release();
+        this.bitmap = bitmap;
+        if (bitmap == null) return;
+        integralRequest = loader.submit(() -> IntegralImage.of(bitmap), new ImageLoader.Callback<IntegralImage>() {
+            @Override
+            public void onLoaded(IntegralImage image) {
+                integralImage = image;
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Sampling keeps reading the bitmap directly
+                Log.e(TAG, "Could not index image for sampling", e);
+            }
+        });
+    }
+
+    /**
+     * Stops building the summed-area table, e.g. when the view is destroyed.
+     */
+    public void release() {
+        if (integralRequest != null) {
+            integralRequest.cancel();
+            integralRequest = null;
+        }
+        integralImage = null;
+        bitmap = null;
+    }
+
+    public boolean hasBitmap() {
+        return bitmap != null;
+    }
+
+    public void setRadius(int radius) {
+        this.radius = Math.max(0, Math.min(MAX_RADIUS, radius));
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Bitmap pixel under a point of a fitCenter ImageView, packed as x << 32 | y, or
+     * OUTSIDE when the point falls in the letterbox.
+     */
+    public long map(float viewX, float viewY, int viewWidth, int viewHeight) {
+        if (bitmap == null) return OUTSIDE;
+        return mapFitCenter(viewX, viewY, viewWidth, viewHeight, bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    public static long mapFitCenter(float viewX, float viewY, int viewWidth, int viewHeight,
+                                    int bitmapWidth, int bitmapHeight) {
+        if (viewWidth <= 0 || viewHeight <= 0 || bitmapWidth <= 0 || bitmapHeight <= 0) return OUTSIDE;
+        float scale = Math.min((float) viewWidth / bitmapWidth, (float) viewHeight / bitmapHeight);
+        float left = (viewWidth - bitmapWidth * scale) / 2f;
+        float top = (viewHeight - bitmapHeight * scale) / 2f;
+        float x = (viewX - left) / scale;
+        float y = (viewY - top) / scale;
+        if (x < 0 || y < 0 || x > bitmapWidth || y > bitmapHeight) return OUTSIDE;
+        // The far edge itself belongs to the last pixel
+        int pixelX = Math.min((int) x, bitmapWidth - 1);
+        int pixelY = Math.min((int) y, bitmapHeight - 1);
+        return ((long) pixelX << 32) | pixelY;
+    }
+
+    public static int mappedX(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    public static int mappedY(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Mean ARGB color of the disc of the current radius around a bitmap pixel.
+     */
+    public int sample(int x, int y) {
+        if (integralImage != null) return integralImage.meanInRadius(x, y, radius);
+        if (bitmap == null) return 0xFF000000;
+
+        int left = Math.max(0, x - radius);
+        int top = Math.max(0, y - radius);
+        int right = Math.min(bitmap.getWidth(), x + radius + 1);
+        int bottom = Math.min(bitmap.getHeight(), y + radius + 1);
+        if (left >= right || top >= bottom) return 0xFF000000;
+        int stride = right - left;
+        bitmap.getPixels(window, 0, stride, left, top, stride, bottom - top);
+        return meanInDisc(window, stride, left, top, right, bottom, x, y, radius);
+    }
+
+    /**
+     * "#RRGGBB" for color, in a buffer that is overwritten by the next call.
+     */
+    public char[] formatHex(int color) {
+        writeHex(color, hex, 0);
+        return hex;
+    }
+
+    /**
+     * Writes "#RRGGBB" for color at offset; out needs HEX_LENGTH chars from there.
+     */
+    public static void writeHex(int color, char[] out, int offset) {
+        out[offset] = '#';
+        for (int i = 0; i < 6; i++) {
+            out[offset + 1 + i] = HEX_DIGITS[(color >> (20 - 4 * i)) & 0xF];
+        }
+    }
+
+    /**
+     * Hex as a String, for the occasional caller outside the sampling path.
+     */
+    public static String toHex(int color) {
+        char[] out = new char[HEX_LENGTH];
+        writeHex(color, out, 0);
+        return new String(out);
+    }
+
+    // Disc mean over a window read from [left, right) x [top, bottom), truncated like IntegralImage
+    static int meanInDisc(int[] pixels, int stride, int left, int top, int right, int bottom,
+                          int centerX, int centerY, int radius) {
+        int red = 0, green = 0, blue = 0, count = 0;
+        for (int y = top; y < bottom; y++) {
+            int dy = y - centerY;
+            int row = (y - top) * stride - left;
+            for (int x = left; x < right; x++) {
+                int dx = x - centerX;
+                if (dx * dx + dy * dy > radius * radius) continue;
+                int color = pixels[row + x];
+                red += (color >> 16) & 0xFF;
+                green += (color >> 8) & 0xFF;
+                blue += color & 0xFF;
+                count++;
+            }
+        }
+        if (count == 0) return 0xFF000000;
+        return 0xFF000000 | (red / count) << 16 | (green / count) << 8 | blue / count;
+    }
+}
@@ -39,6 +39,7 @@ public class EmailsFragment extends Fragment {
 
     private Bitmap currentBitmap;
     private Uri currentImageUri;
+    private ImageLoader.Request loadRequest;
 
     // Modern photo picker launcher
     private final ActivityResultLauncher<PickVisualMediaRequest> pickMedia =
@@ -101,21 +102,43 @@ public class EmailsFragment extends Fragment {
     }
 
     private void loadImageFromUri(Uri uri) {
-        try {
-            currentBitmap = android.provider.MediaStore.Images.Media.getBitmap(
-                    requireContext().getContentResolver(), uri);
-            currentImageUri = uri;
+        if (loadRequest != null) loadRequest.cancel();
+        // Only a preview: text recognition reads the full image from the uri
+        loadRequest = ImageLoader.getInstance(requireContext()).load(uri,
+                imageViewEmail.getWidth(), imageViewEmail.getHeight(),
+                new ImageLoader.Callback<Bitmap>() {
+                    @Override
+                    public void onLoaded(Bitmap bitmap) {
+                        showImage(uri, bitmap);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("FragmentEmails", "Error loading image", e);
+                        Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-            // ✅ Show ImageView once image is loaded
-            imageViewEmail.setImageBitmap(currentBitmap);
-            imageViewEmail.setVisibility(View.VISIBLE);
-            updateGenerateButtonState();
+    private void showImage(Uri uri, Bitmap bitmap) {
+        currentBitmap = bitmap;
+        currentImageUri = uri;
 
+        // ✅ Show ImageView once image is loaded
+        imageViewEmail.setImageBitmap(currentBitmap);
+        imageViewEmail.setVisibility(View.VISIBLE);
+        updateGenerateButtonState();
 
-            resultTxtEmail.setText("Image loaded. Tap Extract Text to start OCR.");
-        } catch (IOException e) {
-            Log.e("FragmentEmails", "Error loading image", e);
-            Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
+
+        resultTxtEmail.setText("Image loaded. Tap Extract Text to start OCR.");
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (loadRequest != null) {
+            loadRequest.cancel();
+            loadRequest = null;
         }
     }
 
@@ -0,0 +1,223 @@
+package com.aastha.colorassistapp;
+
+import android.content.ComponentCallbacks2;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ImageCache keeps decoded images so a photo that is picked again, or opened in another
+ * tab, is not decoded from the content resolver a second time. Recent images stay in a
+ * memory LRU; every image is also written as a PNG to the app's cache directory, already
+ * downsampled and oriented, and that copy is what a later miss in memory reads back.
+ * PNG is lossless, so colors picked from a cached copy match the first decode exactly.
+ *
+ * Keys combine the uri and the decode variant with the size and modification time the
+ * provider reports, so an edited image misses instead of showing stale pixels.
+ *
+ * Cached bitmaps are shared between tabs and must never be modified or handed to the
+ * BitmapPool.
+ */
+public final class ImageCache implements ComponentCallbacks2 {
+
+    private static final String TAG = "ImageCache";
+    private static final String DIRECTORY = "decoded_images";
+    private static final long MAX_DISK_BYTES = 64L * 1024 * 1024;
+
+    private static ImageCache instance;
+
+    private final LruCache<String, Bitmap> memory;
+    private final ContentResolver resolver;
+    private final File directory;
+    // Disk writes happen after the image is shown, one at a time
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+
+    private ImageCache(Context context, int maxBytes) {
+        this.resolver = context.getContentResolver();
+        this.directory = new File(context.getCacheDir(), DIRECTORY);
+        this.memory = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Process-wide cache, registered for trim callbacks on first use.
+     */
+    public static synchronized ImageCache getInstance(Context context) {
+        if (instance == null) {
+            // A sixteenth of the heap keeps the last few previews of every tab
+            instance = new ImageCache(context.getApplicationContext(),
+                    (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16));
+            context.getApplicationContext().registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Key for uri decoded as variant (e.g. the target size), or null when the provider
+     * reports neither a size nor a modification time, since changes could then go unseen.
+     * Queries the provider, so call it off the main thread.
+     */
+    public String keyFor(Uri uri, String variant) {
+        long size = -1;
+        long modified = -1;
+        try (Cursor cursor = resolver.query(uri, null, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                size = getLong(cursor, OpenableColumns.SIZE);
+                modified = getLong(cursor, MediaStore.MediaColumns.DATE_MODIFIED);
+                if (modified < 0) modified = getLong(cursor, DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+                // The photo picker only reports when the photo was taken
+                if (modified < 0) modified = getLong(cursor, MediaStore.MediaColumns.DATE_TAKEN);
+            }
+        } catch (RuntimeException e) {
+            // Some providers reject queries outright
+            Log.w(TAG, "No metadata for " + uri, e);
+        }
+        if (size < 0 && modified < 0) return null;
+        return uri + "|" + size + "|" + modified + "|" + variant;
+    }
+
+    /**
+     * Memory first, then the disk copy. Null on a miss. May read from disk, so call it
+     * off the main thread.
+     */
+    public Bitmap get(String key) {
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) return bitmap;
+
+        File file = fileFor(key);
+        if (!file.exists()) return null;
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        if (bitmap == null) {
+            // Truncated by a crash mid-write, most likely
+            file.delete();
+            return null;
+        }
+        // Most recently used first when the directory is trimmed
+        file.setLastModified(System.currentTimeMillis());
+        memory.put(key, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Keeps bitmap in memory right away and writes its disk copy in the background. The
+     * bitmap now belongs to the cache.
+     */
+    public void put(String key, Bitmap bitmap) {
+        memory.put(key, bitmap);
+        diskExecutor.execute(() -> write(key, bitmap));
+    }
+
+    public void clearMemory() {
+        memory.evictAll();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            clearMemory();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            memory.trimToSize(memory.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        clearMemory();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+
+    private void write(String key, Bitmap bitmap) {
+        File file = fileFor(key);
+        if (file.exists()) return;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Could not create " + directory);
+            return;
+        }
+        // Written under another name first so a reader never sees half a file
+        File partial = new File(directory, file.getName() + ".tmp");
+        boolean written;
+        try (OutputStream out = new FileOutputStream(partial)) {
+            written = bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + file, e);
+            written = false;
+        }
+        if (!written || !partial.renameTo(file)) {
+            partial.delete();
+            return;
+        }
+        trimDisk();
+    }
+
+    // Oldest first until the directory fits in MAX_DISK_BYTES
+    private void trimDisk() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_DISK_BYTES) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= MAX_DISK_BYTES) break;
+            long length = file.length();
+            if (file.delete()) total -= length;
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, hash(key) + ".png");
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android runtime ships SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long getLong(Cursor cursor, String column) {
+        int index = cursor.getColumnIndex(column);
+        return index >= 0 && !cursor.isNull(index) ? cursor.getLong(index) : -1;
+    }
+}
@@ -0,0 +1,242 @@
+package com.aastha.colorassistapp;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ImageLoader decodes picked images off the main thread, sized for the view that shows
+ * them. The header is read first and the image is then decoded with the coarsest
+ * power-of-two inSampleSize that still covers the target, into a pooled bitmap, so a
+ * camera photo is never held at full resolution just to show a preview. Decoded images
+ * go through the shared ImageCache, so the same photo is only decoded once.
+ *
+ * Results are delivered on the main thread. A cancelled request never reaches its
+ * callback; anything it produced is handed to onDiscarded instead.
+ */
+public final class ImageLoader {
+
+    private static final String TAG = "ImageLoader";
+    private static final int THREADS = 2;
+    private static final int UNKNOWN_ORIENTATION = -1;
+
+    private static ImageLoader instance;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ContentResolver resolver;
+    private final BitmapPool pool;
+    private final ImageCache cache;
+    private final DisplayMetrics displayMetrics;
+
+    /**
+     * Work run on the loader's threads.
+     */
+    public interface Task<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Receives a request's outcome on the main thread.
+     */
+    public interface Callback<T> {
+        void onLoaded(T result);
+
+        void onError(Exception e);
+
+        /**
+         * A result that finished after its request was cancelled, for releasing it.
+         */
+        default void onDiscarded(T result) {}
+    }
+
+    /**
+     * Handle for an in-flight load.
+     */
+    public static final class Request {
+        private volatile boolean cancelled;
+
+        /**
+         * Stops delivery to the callback. Call from the main thread, e.g. when the view
+         * is destroyed or a newer image was picked.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private ImageLoader(Context context) {
+        this.resolver = context.getContentResolver();
+        this.pool = BitmapPool.getInstance(context);
+        this.cache = ImageCache.getInstance(context);
+        this.displayMetrics = context.getResources().getDisplayMetrics();
+    }
+
+    public static synchronized ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Decodes uri for a view of targetWidth x targetHeight showing it scaled to fit. A
+     * dimension that is not known yet (0, e.g. a view that was never laid out) falls back
+     * to the screen size. The bitmap is shared through the ImageCache and must not be
+     * modified or put in the BitmapPool.
+     */
+    public Request load(Uri uri, int targetWidth, int targetHeight, Callback<Bitmap> callback) {
+        int width = targetWidth > 0 ? targetWidth : displayMetrics.widthPixels;
+        int height = targetHeight > 0 ? targetHeight : displayMetrics.heightPixels;
+        return submit(() -> decodeToFit(uri, width, height), callback);
+    }
+
+    /**
+     * Synchronous load(), upright according to the EXIF orientation. Loader threads only.
+     * The result is cached under its inSampleSize rather than the target, so tabs whose
+     * views pick the same sample share one decode.
+     */
+    public Bitmap decodeToFit(Uri uri, int targetWidth, int targetHeight) throws IOException {
+        BitmapFactory.Options bounds = BitmapPool.readBounds(resolver, uri);
+        int orientation = readOrientation(uri);
+        // Sideways photos are fitted with their width and height swapped
+        boolean sideways = orientation >= ExifInterface.ORIENTATION_TRANSPOSE;
+        int sample = sampleSizeFor(bounds.outWidth, bounds.outHeight,
+                sideways ? targetHeight : targetWidth, sideways ? targetWidth : targetHeight);
+        Log.d(TAG, "Fitting " + bounds.outWidth + "x" + bounds.outHeight + " at 1/" + sample
+                + " for " + targetWidth + "x" + targetHeight);
+        return decodeCached(uri, bounds, sample, true, orientation);
+    }
+
+    /**
+     * Decodes at a fixed inSampleSize through the ImageCache, for callers that choose the
+     * size themselves. Orientation is optional because region decoder tiles are never
+     * rotated. Loader threads only.
+     */
+    public Bitmap decodeSampled(Uri uri, BitmapFactory.Options bounds, int sampleSize, boolean oriented)
+            throws IOException {
+        return decodeCached(uri, bounds, sampleSize, oriented, UNKNOWN_ORIENTATION);
+    }
+
+    // Shared by load() and decodeSampled(), which therefore hit the same cache entries.
+    // The orientation is only read on a miss unless the caller already has it.
+    private Bitmap decodeCached(Uri uri, BitmapFactory.Options bounds, int sampleSize, boolean oriented,
+                                int orientation) throws IOException {
+        String key = cache.keyFor(uri, "sample:" + sampleSize + (oriented ? ":upright" : ""));
+        Bitmap cached = key != null ? cache.get(key) : null;
+        if (cached != null) return cached;
+
+        Bitmap bitmap = pool.decode(resolver, uri, bounds, sampleSize);
+        if (oriented) {
+            bitmap = orient(bitmap, orientation != UNKNOWN_ORIENTATION ? orientation : readOrientation(uri));
+        }
+        if (key != null) cache.put(key, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Runs any other loading work (e.g. opening a region decoder as well) on the loader's
+     * threads with the same delivery and cancellation.
+     */
+    public <T> Request submit(Task<T> task, Callback<T> callback) {
+        Request request = new Request();
+        executor.execute(() -> {
+            if (request.cancelled) return;
+            T result;
+            try {
+                result = task.run();
+            } catch (Exception e) {
+                mainHandler.post(() -> {
+                    if (!request.cancelled) callback.onError(e);
+                });
+                return;
+            }
+            mainHandler.post(() -> {
+                if (request.cancelled) {
+                    callback.onDiscarded(result);
+                } else {
+                    callback.onLoaded(result);
+                }
+            });
+        });
+        return request;
+    }
+
+    /**
+     * Coarsest power-of-two subsample that still leaves at least one decoded pixel per
+     * screen pixel once the image is scaled to fit inside the target.
+     */
+    public static int sampleSizeFor(int width, int height, int targetWidth, int targetHeight) {
+        int sample = 1;
+        while (sample < 1 << 14
+                && (width / (sample * 2) >= targetWidth || height / (sample * 2) >= targetHeight)) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private int readOrientation(Uri uri) {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            return in != null
+                    ? new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)
+                    : ExifInterface.ORIENTATION_NORMAL;
+        } catch (IOException | RuntimeException e) {
+            // No EXIF block (PNG, screenshots) or one the parser rejects
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    // Applies an EXIF orientation; the decoded bitmap goes back to the pool when copied
+    private Bitmap orient(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                return bitmap;
+        }
+        Bitmap oriented = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, false);
+        if (oriented != bitmap) {
+            pool.put(bitmap);
+        }
+        return oriented;
+    }
+}
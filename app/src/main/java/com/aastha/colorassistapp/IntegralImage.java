@@ -0,0 +1,142 @@
+package com.aastha.colorassistapp;
+
+import android.graphics.Bitmap;
+
+/**
+ * IntegralImage is a summed-area table of a bitmap's red, green and blue channels, so the
+ * mean color of any rectangle costs four lookups and the mean over a disc one rectangle
+ * per row, whatever the image. Built once per image, off the main thread.
+ *
+ * The three channel sums share one long per entry in 21-bit lanes. Over the whole image
+ * the lanes carry into each other, but a window's sum comes out exact as long as each of
+ * its channels stays below 2^21, which limits windows to MAX_AREA pixels.
+ */
+public final class IntegralImage {
+
+    private static final int LANE_BITS = 21;
+    private static final long LANE_MASK = (1L << LANE_BITS) - 1;
+
+    public static final int MAX_RADIUS = 40;
+    // Largest window whose channel sums fit a lane even when every pixel is 255
+    static final int MAX_AREA = (int) (LANE_MASK / 255);
+
+    private final int width;
+    private final int height;
+    // (width + 1) x (height + 1), first row and column zero
+    private final long[] sums;
+
+    private IntegralImage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.sums = new long[(width + 1) * (height + 1)];
+    }
+
+    /**
+     * Reads the bitmap a row at a time; call it off the main thread.
+     */
+    public static IntegralImage of(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        IntegralImage image = new IntegralImage(width, height);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            image.addRow(row, 0, y);
+        }
+        return image;
+    }
+
+    static IntegralImage of(int[] pixels, int width, int height) {
+        IntegralImage image = new IntegralImage(width, height);
+        for (int y = 0; y < height; y++) {
+            image.addRow(pixels, y * width, y);
+        }
+        return image;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Mean color of [left, right) x [top, bottom), clipped to the image; black when
+     * nothing is left. Channels are truncated like an integer average.
+     */
+    public int meanInRect(int left, int top, int right, int bottom) {
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(width, right);
+        bottom = Math.min(height, bottom);
+        if (left >= right || top >= bottom) return 0xFF000000;
+        int count = (right - left) * (bottom - top);
+        if (count > MAX_AREA) {
+            throw new IllegalArgumentException("Window of " + count + " pixels exceeds " + MAX_AREA);
+        }
+        return mean(windowSum(left, top, right, bottom), count);
+    }
+
+    /**
+     * Mean color of the pixels within radius of (centerX, centerY), the same disc as
+     * dx * dx + dy * dy <= radius * radius, clipped to the image.
+     */
+    public int meanInRadius(int centerX, int centerY, int radius) {
+        if (radius < 0 || radius > MAX_RADIUS) {
+            throw new IllegalArgumentException("Radius " + radius + " outside 0.." + MAX_RADIUS);
+        }
+        long sum = 0;
+        int count = 0;
+        int top = Math.max(0, centerY - radius);
+        int bottom = Math.min(height - 1, centerY + radius);
+        for (int y = top; y <= bottom; y++) {
+            int dy = y - centerY;
+            int halfWidth = halfChord(radius * radius - dy * dy);
+            int left = Math.max(0, centerX - halfWidth);
+            int right = Math.min(width, centerX + halfWidth + 1);
+            if (left >= right) continue;
+            // Each lane of the running total stays below 2^21 because the disc is under MAX_AREA
+            sum += windowSum(left, y, right, y + 1);
+            count += right - left;
+        }
+        return count != 0 ? mean(sum, count) : 0xFF000000;
+    }
+
+    private void addRow(int[] pixels, int offset, int y) {
+        int stride = width + 1;
+        int above = y * stride + 1;
+        int here = (y + 1) * stride + 1;
+        long rowSum = 0;
+        for (int x = 0; x < width; x++) {
+            int color = pixels[offset + x];
+            rowSum += ((long) ((color >> 16) & 0xFF) << (2 * LANE_BITS))
+                    | ((long) ((color >> 8) & 0xFF) << LANE_BITS)
+                    | (color & 0xFF);
+            sums[here + x] = sums[above + x] + rowSum;
+        }
+    }
+
+    // Packed channel sums of [left, right) x [top, bottom)
+    private long windowSum(int left, int top, int right, int bottom) {
+        int stride = width + 1;
+        return sums[bottom * stride + right] - sums[top * stride + right]
+                - sums[bottom * stride + left] + sums[top * stride + left];
+    }
+
+    private static int mean(long sum, int count) {
+        int red = (int) (((sum >>> (2 * LANE_BITS)) & LANE_MASK) / count);
+        int green = (int) (((sum >>> LANE_BITS) & LANE_MASK) / count);
+        int blue = (int) ((sum & LANE_MASK) / count);
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+
+    // Largest x with x * x <= value
+    private static int halfChord(int value) {
+        int x = (int) Math.sqrt(value);
+        while (x * x > value) x--;
+        while ((x + 1) * (x + 1) <= value) x++;
+        return x;
+    }
+}
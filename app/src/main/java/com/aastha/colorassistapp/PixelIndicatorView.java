@@ -1,24 +1,57 @@
 package com.aastha.colorassistapp;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Color;
+import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.View;
 
+/**
+ * Overlay for the image in Home and Marine that marks the picked point and shows a
+ * magnifier loupe of the pixels around it: ZOOM times their on-screen size, with a grid
+ * between pixels and a circle for the sampling radius. The loupe is drawn straight from
+ * a sub-rectangle of the source bitmap with reused Rects and Paints, so redrawing it on
+ * every frame of a drag allocates nothing.
+ */
 public class PixelIndicatorView extends View {
     private int tapX = -1;
     private int tapY = -1;
+    private int bitmapX;
+    private int bitmapY;
+    private int sampleRadius;
     private int hexColor = Color.BLACK;
-    private String hexString = "#000000";
+    // Copied from the sampler's buffer, so drawing never needs a String
+    private final char[] hexChars = "#000000".toCharArray();
     private static final int RADIUS = 12; // 3-pixel radius = 6px diameter, scaled for visibility
     private static final int INDICATOR_SIZE = 25; // Size of indicator square
-    
+    private static final int ZOOM = 8;
+    private static final int LOUPE_SIZE_DP = 120;
+    private static final int LOUPE_GAP_DP = 28; // Keeps the loupe clear of the finger
+    private static final int MIN_GRID_CELL = 5; // Smaller cells would be all grid
+
+    // Image shown underneath with fitCenter, null when none
+    private Bitmap source;
+    private float displayScale;
+    // Screen pixels per source pixel inside the loupe, and pixels across it (odd)
+    private int cellSize;
+    private int loupeCells;
+    private float[] gridPoints = new float[0];
+    private final Rect srcRect = new Rect();
+    private final Rect dstRect = new Rect();
+    private final Rect loupeRect = new Rect();
+
     private Paint circlePaint;
     private Paint invertedSquarePaint;
     private Paint textPaint;
     private Paint borderPaint;
+    private Paint loupePaint;
+    private Paint loupeBackgroundPaint;
+    private Paint gridPaint;
+    private Paint radiusPaint;
+    private Paint centerCellPaint;
 
     public PixelIndicatorView(Context context) {
         super(context);
@@ -60,13 +93,76 @@ public class PixelIndicatorView extends View {
         borderPaint.setColor(Color.WHITE);
         borderPaint.setStyle(Paint.Style.STROKE);
         borderPaint.setStrokeWidth(2f);
+
+        // Nearest-neighbour scaling keeps every source pixel a sharp square
+        loupePaint = new Paint();
+        loupePaint.setFilterBitmap(false);
+
+        loupeBackgroundPaint = new Paint();
+        loupeBackgroundPaint.setColor(Color.DKGRAY);
+        loupeBackgroundPaint.setStyle(Paint.Style.FILL);
+
+        gridPaint = new Paint();
+        gridPaint.setColor(Color.BLACK);
+        gridPaint.setAlpha(70);
+        gridPaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setStrokeWidth(1f);
+
+        radiusPaint = new Paint();
+        radiusPaint.setColor(Color.WHITE);
+        radiusPaint.setStyle(Paint.Style.STROKE);
+        radiusPaint.setStrokeWidth(2f);
+        radiusPaint.setAntiAlias(true);
+        radiusPaint.setShadowLayer(2, 0, 0, Color.BLACK);
+
+        centerCellPaint = new Paint();
+        centerCellPaint.setStyle(Paint.Style.STROKE);
+        centerCellPaint.setStrokeWidth(2f);
     }
 
-    public void updateIndicator(int x, int y, int color, String hex) {
+    /**
+     * Sets the bitmap the underlying fitCenter ImageView shows, for the loupe.
+     */
+    public void setSource(Bitmap bitmap) {
+        this.source = bitmap;
+        updateLoupeGeometry();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateLoupeGeometry();
+    }
+
+    // Cell size and grid depend only on the view and image sizes, so nothing here runs per frame
+    private void updateLoupeGeometry() {
+        if (source == null || getWidth() <= 0 || getHeight() <= 0) {
+            loupeCells = 0;
+            return;
+        }
+        displayScale = Math.min((float) getWidth() / source.getWidth(), (float) getHeight() / source.getHeight());
+        int loupeSize = Math.round(LOUPE_SIZE_DP * getResources().getDisplayMetrics().density);
+        cellSize = Math.max(1, Math.round(ZOOM * displayScale));
+        loupeCells = Math.max(1, (loupeSize / cellSize - 1) | 1);
+        // Two points per line, one line per cell edge in each direction
+        int points = (loupeCells + 1) * 2 * 4;
+        if (gridPoints.length != points) gridPoints = new float[points];
+    }
+
+    /**
+     * Moves the indicator to view point (x, y), which shows source pixel (bitmapX,
+     * bitmapY) sampled with radius; hex holds "#RRGGBB" in its first
+     * ColorSampler.HEX_LENGTH chars.
+     */
+    public void updateIndicator(int x, int y, int bitmapX, int bitmapY, int radius, int color, char[] hex) {
         this.tapX = x;
         this.tapY = y;
+        this.bitmapX = bitmapX;
+        this.bitmapY = bitmapY;
+        this.sampleRadius = radius;
         this.hexColor = color;
-        this.hexString = hex;
+        System.arraycopy(hex, 0, hexChars, 0, hexChars.length);
         invalidate();
     }
 
@@ -98,6 +194,11 @@ public class PixelIndicatorView extends View {
         canvas.drawRect(squareLeft, squareTop, squareLeft + INDICATOR_SIZE, squareTop + INDICATOR_SIZE, invertedSquarePaint);
         canvas.drawRect(squareLeft, squareTop, squareLeft + INDICATOR_SIZE, squareTop + INDICATOR_SIZE, borderPaint);
 
+        if (source != null && loupeCells > 0) {
+            drawLoupe(canvas);
+            return;
+        }
+
         // Draw HEX value text near the indicator
         int textX = tapX;
         int textY = tapY - (INDICATOR_SIZE / 2) - 20;
@@ -107,6 +208,66 @@ public class PixelIndicatorView extends View {
             textY = tapY + (INDICATOR_SIZE / 2) + 40;
         }
 
-        canvas.drawText(hexString, textX, textY, textPaint);
+        canvas.drawText(hexChars, 0, hexChars.length, textX, textY, textPaint);
+    }
+
+    private void drawLoupe(Canvas canvas) {
+        int side = loupeCells * cellSize;
+        int gap = Math.round(LOUPE_GAP_DP * getResources().getDisplayMetrics().density);
+
+        // Above the finger, or below it near the top edge; kept inside the view both ways
+        int left = Math.max(0, Math.min(tapX - side / 2, getWidth() - side));
+        boolean above = tapY - gap - side >= 0;
+        int top = above ? tapY - gap - side : Math.max(0, Math.min(tapY + gap, getHeight() - side));
+        loupeRect.set(left, top, left + side, top + side);
+        canvas.drawRect(loupeRect, loupeBackgroundPaint);
+
+        // Source pixels around the pick, clipped to the image; the rest stays background
+        int half = loupeCells / 2;
+        int srcLeft = bitmapX - half;
+        int srcTop = bitmapY - half;
+        srcRect.set(Math.max(0, srcLeft), Math.max(0, srcTop),
+                Math.min(source.getWidth(), srcLeft + loupeCells), Math.min(source.getHeight(), srcTop + loupeCells));
+        if (srcRect.left < srcRect.right && srcRect.top < srcRect.bottom) {
+            dstRect.set(left + (srcRect.left - srcLeft) * cellSize, top + (srcRect.top - srcTop) * cellSize,
+                    left + (srcRect.right - srcLeft) * cellSize, top + (srcRect.bottom - srcTop) * cellSize);
+            canvas.drawBitmap(source, srcRect, dstRect, loupePaint);
+        }
+
+        // Pixel boundaries
+        if (cellSize >= MIN_GRID_CELL) {
+            int n = 0;
+            for (int i = 0; i <= loupeCells; i++) {
+                float offset = i * cellSize;
+                gridPoints[n++] = left + offset;
+                gridPoints[n++] = top;
+                gridPoints[n++] = left + offset;
+                gridPoints[n++] = top + side;
+                gridPoints[n++] = left;
+                gridPoints[n++] = top + offset;
+                gridPoints[n++] = left + side;
+                gridPoints[n++] = top + offset;
+            }
+            canvas.drawLines(gridPoints, 0, n, gridPaint);
+        }
+
+        // Sampling disc around the center pixel, which is outlined in the inverted color
+        float center = half * cellSize + cellSize / 2f;
+        int saveCount = canvas.save();
+        canvas.clipRect(loupeRect);
+        canvas.drawCircle(left + center, top + center, (sampleRadius + 0.5f) * cellSize, radiusPaint);
+        canvas.restoreToCount(saveCount);
+        int cellLeft = left + half * cellSize;
+        int cellTop = top + half * cellSize;
+        centerCellPaint.setColor(0xFFFFFF ^ hexColor);
+        canvas.drawRect(cellLeft, cellTop, cellLeft + cellSize, cellTop + cellSize, centerCellPaint);
+        canvas.drawRect(loupeRect, borderPaint);
+
+        // HEX value on the side of the loupe away from the finger
+        float textY = above ? top - 12 : top + side + textPaint.getTextSize() + 8;
+        if (above && textY < textPaint.getTextSize()) textY = top + side + textPaint.getTextSize() + 8;
+        // A loupe pushed up against the bottom edge has no room below for the label
+        if (!above && textY > getHeight()) textY = top - 12;
+        canvas.drawText(hexChars, 0, hexChars.length, left + side / 2f, textY, textPaint);
     }
 }
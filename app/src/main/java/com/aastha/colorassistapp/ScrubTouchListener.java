@@ -0,0 +1,81 @@
+package com.aastha.colorassistapp;
+
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewParent;
+
+/**
+ * ScrubTouchListener turns a finger dragged across an image into at most one sample per
+ * display frame. Touch events only record the latest position; a Choreographer frame
+ * callback hands it on once per vsync, so a burst of move events costs one sample.
+ * Nothing is allocated per event or per frame.
+ */
+public final class ScrubTouchListener implements View.OnTouchListener, Choreographer.FrameCallback {
+
+    /**
+     * Called on the main thread with the latest touch position in view coordinates.
+     */
+    public interface Listener {
+        void onScrub(float x, float y);
+    }
+
+    private final Listener listener;
+    private float latestX;
+    private float latestY;
+    private boolean pending;
+    private boolean frameScheduled;
+
+    public ScrubTouchListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean onTouch(View view, MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                // Keep an enclosing ScrollView from taking over vertical drags
+                disallowIntercept(view, true);
+                // Fall through: the touch-down point is sampled too
+            case MotionEvent.ACTION_MOVE:
+                latestX = event.getX();
+                latestY = event.getY();
+                pending = true;
+                if (!frameScheduled) {
+                    frameScheduled = true;
+                    Choreographer.getInstance().postFrameCallback(this);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                disallowIntercept(view, false);
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (!pending) return;
+        pending = false;
+        listener.onScrub(latestX, latestY);
+    }
+
+    /**
+     * Drops a sample still waiting for the next frame, e.g. when the view goes away.
+     */
+    public void cancel() {
+        pending = false;
+        if (frameScheduled) {
+            frameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    private static void disallowIntercept(View view, boolean disallow) {
+        ViewParent parent = view.getParent();
+        if (parent != null) parent.requestDisallowInterceptTouchEvent(disallow);
+    }
+}
@@ -2,7 +2,10 @@ package com.aastha.colorassistapp.ui.charts;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
+import android.content.ContentResolver;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -13,6 +16,8 @@ import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.SeekBar;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -24,17 +29,27 @@ import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
+import com.aastha.colorassistapp.BitmapPool;
+import com.aastha.colorassistapp.ImageLoader;
 import com.aastha.colorassistapp.R;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public class ChartsFragment extends Fragment {
 
     private ColorblindnessSimulationView chartView;
     private Spinner colorblindnessSpinner;
+    private CheckBox linearLightCheckBox;
+    private CheckBox correctionCheckBox;
+    private SeekBar severitySeekBar;
+    private TextView severityTxt;
     private Button uploadChartBtn;
     private Button generateBtn;
     private Bitmap originalBitmap;
+    // Set when the chart is larger than MAX_DIMENSION and streamed in tiles
+    private BitmapRegionDecoder regionDecoder;
+    private ImageLoader.Request loadRequest;
     private TextView headingChartsTxt;
     private TextView descChartsTxt;
     private TextView uploadChartTxt;
@@ -42,6 +57,7 @@ public class ChartsFragment extends Fragment {
     private ActivityResultLauncher<PickVisualMediaRequest> pickMedia;
     private ColorblindnessSimulationView.ColorblindnessMode currentMode = ColorblindnessSimulationView.ColorblindnessMode.NONE;
     private static final String TAG = "ChartsFragment";
+    private static final int MAX_DIMENSION = 2048;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -70,6 +86,10 @@ public class ChartsFragment extends Fragment {
         uploadChartBtn = view.findViewById(R.id.btn_upload_chart);
         chartView = view.findViewById(R.id.chart_simulation_view);
         colorblindnessSpinner = view.findViewById(R.id.spinner_colorblindness);
+        linearLightCheckBox = view.findViewById(R.id.checkbox_linear_light);
+        correctionCheckBox = view.findViewById(R.id.checkbox_correction);
+        severitySeekBar = view.findViewById(R.id.seekbar_severity);
+        severityTxt = view.findViewById(R.id.severityTxt);
         generateBtn = view.findViewById(R.id.btn_generate);
         headingChartsTxt = view.findViewById(R.id.headingChartsTxt);
         descChartsTxt = view.findViewById(R.id.descChartsTxt);
@@ -84,6 +104,14 @@ public class ChartsFragment extends Fragment {
         
         // Setup colorblindness spinner
         setupColorblindnessSpinner();
+
+        // Linear-light model applies straight away to whatever is on screen
+        linearLightCheckBox.setOnCheckedChangeListener((button, checked) ->
+                chartView.setLinearLightEnabled(checked));
+        correctionCheckBox.setOnCheckedChangeListener((button, checked) ->
+                chartView.setCorrectionEnabled(checked));
+
+        setupSeveritySeekBar();
     }
 
     private void setupColorblindnessSpinner() {
@@ -94,7 +122,8 @@ public class ChartsFragment extends Fragment {
                 "None (Normal Vision)",
                 "Protanopia (Red-Green, Red-sensitive)",
                 "Deuteranopia (Red-Green, Green-sensitive)",
-                "Tritanopia (Blue-Yellow)"
+                "Tritanopia (Blue-Yellow)",
+                "Compare All (2x2 Grid)"
             }
         );
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
@@ -111,6 +140,26 @@ public class ChartsFragment extends Fragment {
         });
     }
 
+    private void setupSeveritySeekBar() {
+        severitySeekBar.setMax(100);
+        severitySeekBar.setProgress(100);
+        severityTxt.setText("Severity: 100%");
+        severitySeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                severityTxt.setText("Severity: " + progress + "%");
+                // Re-renders asynchronously; intermediate steps are superseded while dragging
+                chartView.setSeverity(progress / 100f);
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
+        });
+    }
+
     private void updateColorblindnessMode(int position) {
         switch (position) {
             case 0:
@@ -125,6 +174,9 @@ public class ChartsFragment extends Fragment {
             case 3:
                 currentMode = ColorblindnessSimulationView.ColorblindnessMode.TRITANOPIA;
                 break;
+            case 4:
+                currentMode = ColorblindnessSimulationView.ColorblindnessMode.COMPARISON;
+                break;
         }
         Log.d(TAG, "Colorblindness mode selected: " + currentMode);
     }
@@ -136,7 +188,7 @@ public class ChartsFragment extends Fragment {
         }
         
         // Apply current settings
-        chartView.setBitmap(originalBitmap);
+        chartView.setBitmap(originalBitmap, regionDecoder);
         chartView.setColorblindnessMode(currentMode);
         
         Toast.makeText(getContext(), "Chart generated with " + currentMode, Toast.LENGTH_SHORT).show();
@@ -179,42 +231,94 @@ public class ChartsFragment extends Fragment {
         // Show loading state instantly
         chartView.setBitmap(null);
 
-        // Load in background thread
-        new Thread(() -> {
-            try {
-                Bitmap bitmap = android.provider.MediaStore.Images.Media.getBitmap(
-                        requireContext().getContentResolver(), uri);
-
-                // Scale down if too large (original method - works reliably)
-                int maxDimension = 2048;
-                if (bitmap.getWidth() > maxDimension || bitmap.getHeight() > maxDimension) {
-                    float scale = Math.min((float) maxDimension / bitmap.getWidth(),
-                            (float) maxDimension / bitmap.getHeight());
-                    int newWidth = (int) (bitmap.getWidth() * scale);
-                    int newHeight = (int) (bitmap.getHeight() * scale);
-                    Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, newWidth, newHeight, true);
-                    bitmap.recycle();
-                    bitmap = scaledBitmap;
+        if (loadRequest != null) loadRequest.cancel();
+        ContentResolver resolver = requireContext().getContentResolver();
+        ImageLoader loader = ImageLoader.getInstance(requireContext());
+        loadRequest = loader.submit(() -> {
+            BitmapFactory.Options bounds = BitmapPool.readBounds(resolver, uri);
+            boolean oversized = bounds.outWidth > MAX_DIMENSION || bounds.outHeight > MAX_DIMENSION;
+            BitmapRegionDecoder decoder = oversized ? openRegionDecoder(resolver, uri) : null;
+            // Oversized charts get a subsampled overview, streamed at full resolution when
+            // possible; tiles are never rotated, so neither is a streamed overview
+            Bitmap bitmap = loader.decodeSampled(uri, bounds,
+                    overviewSampleSize(bounds.outWidth, bounds.outHeight), decoder == null);
+            return new LoadedChart(bitmap, decoder);
+        }, new ImageLoader.Callback<LoadedChart>() {
+            @Override
+            public void onLoaded(LoadedChart chart) {
+                BitmapRegionDecoder previousDecoder = regionDecoder;
+                originalBitmap = chart.bitmap;
+                regionDecoder = chart.decoder;
+                chartView.setBitmap(originalBitmap, regionDecoder);
+                if (previousDecoder != null) {
+                    previousDecoder.recycle();
                 }
+                chartView.setColorblindnessMode(ColorblindnessSimulationView.ColorblindnessMode.NONE);
+                updateGenerateButtonState();
+                Toast.makeText(getContext(), "Chart loaded successfully", Toast.LENGTH_SHORT).show();
+                Log.d(TAG, "Chart loaded: " + originalBitmap.getWidth() + "x" + originalBitmap.getHeight()
+                        + (regionDecoder != null ? " (streaming " + regionDecoder.getWidth() + "x" + regionDecoder.getHeight() + ")" : ""));
+            }
 
-                originalBitmap = bitmap;
-
-                // Update UI on main thread
-                requireActivity().runOnUiThread(() -> {
-                    chartView.setBitmap(originalBitmap);
-                    chartView.setColorblindnessMode(ColorblindnessSimulationView.ColorblindnessMode.NONE);
-                    updateGenerateButtonState();
-                    Toast.makeText(getContext(), "Chart loaded successfully", Toast.LENGTH_SHORT).show();
-                    Log.d(TAG, "Chart loaded: " + originalBitmap.getWidth() + "x" + originalBitmap.getHeight());
-                });
-
-            } catch (IOException e) {
-                requireActivity().runOnUiThread(() -> {
-                    Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
-                });
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
                 Log.e(TAG, "Error loading chart image", e);
             }
-        }).start();
+
+            @Override
+            public void onDiscarded(LoadedChart chart) {
+                if (chart.decoder != null) {
+                    chart.decoder.recycle();
+                }
+            }
+        });
+    }
+
+    private static final class LoadedChart {
+        final Bitmap bitmap;
+        final BitmapRegionDecoder decoder;
+
+        LoadedChart(Bitmap bitmap, BitmapRegionDecoder decoder) {
+            this.bitmap = bitmap;
+            this.decoder = decoder;
+        }
+    }
+
+    /**
+     * Region decoder for images over MAX_DIMENSION, so they can be viewed at full
+     * resolution without decoding them whole. Null for formats the region decoder
+     * does not support, which take the regular downscaling path.
+     */
+    private BitmapRegionDecoder openRegionDecoder(ContentResolver resolver, Uri uri) {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            return BitmapRegionDecoder.newInstance(in, false);
+        } catch (IOException e) {
+            Log.w(TAG, "Region decoding not supported, falling back to a downscaled image", e);
+            return null;
+        }
+    }
+
+    // Overview is subsampled while decoding, so the full-resolution image is never in memory
+    private static int overviewSampleSize(int width, int height) {
+        int sample = 1;
+        while (Math.max(width, height) / sample > MAX_DIMENSION) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (loadRequest != null) {
+            loadRequest.cancel();
+            loadRequest = null;
+        }
+        if (regionDecoder != null) {
+            regionDecoder.recycle();
+            regionDecoder = null;
+        }
     }
 
 
@@ -0,0 +1,328 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ColorPipeline chains color effects (simulation, daltonization, severity blend,
+ * brightness/contrast, or any other PixelKernel) into a single kernel.
+ *
+ * Consecutive linear stages are folded into one affine matrix when the pipeline is
+ * built, so an all-linear chain costs the same as a single simulation and can still
+ * be drawn with a ColorMatrixColorFilter. Non-linear kernels split the chain into
+ * segments that are run back to back on small cache-sized chunks, so the image is
+ * still only read and written once. Like a ColorMatrix, folded stages are not clamped
+ * in between; only the final result is.
+ */
+public final class ColorPipeline implements PixelKernel {
+
+    // Pixels per chunk when several segments run over the same span
+    private static final int CHUNK_PIXELS = 1024;
+
+    // Daltonization: how the information lost to the simulation is shifted into the
+    // channels the viewer can still see (Fidaner et al.). Red-green deficiencies move
+    // the red error into green and blue; tritan moves the blue error into red and green.
+    private static final double[][] DALTONIZE_SHIFT_RED_GREEN = {{0, 0, 0}, {0.7, 1, 0}, {0.7, 0, 1}};
+    private static final double[][] DALTONIZE_SHIFT_TRITAN = {{1, 0, 0.7}, {0, 1, 0.7}, {0, 0, 0}};
+
+    private final PixelKernel[] segments;
+
+    private ColorPipeline(PixelKernel[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Pipeline running the classic simulation for a mode; identity for NONE.
+     */
+    public static ColorPipeline forMode(ColorTransformer.Mode mode) {
+        return new Builder().simulate(mode).build();
+    }
+
+    @Override
+    public void transform(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+        PixelKernel[] stages = segments;
+        if (stages.length == 0) {
+            if (src != dst || srcOffset != dstOffset) {
+                System.arraycopy(src, srcOffset, dst, dstOffset, count);
+            }
+            return;
+        }
+        if (stages.length == 1) {
+            stages[0].transform(src, srcOffset, dst, dstOffset, count);
+            return;
+        }
+
+        for (int start = 0; start < count; start += CHUNK_PIXELS) {
+            int length = Math.min(CHUNK_PIXELS, count - start);
+            int out = dstOffset + start;
+            stages[0].transform(src, srcOffset + start, dst, out, length);
+            for (int i = 1; i < stages.length; i++) {
+                stages[i].transform(dst, out, dst, out, length);
+            }
+        }
+    }
+
+    @Override
+    public float[] getColorMatrix() {
+        return segments.length == 1 ? segments[0].getColorMatrix() : null;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return segments.length == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ColorPipeline && Arrays.equals(segments, ((ColorPipeline) o).segments);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(segments);
+    }
+
+    /**
+     * Collects stages in the order they apply to a pixel.
+     */
+    public static final class Builder {
+        private final List<PixelKernel> kernels = new ArrayList<>();
+        // Linear stages since the last kernel, folded as they are added (3x4 affine on 0..255)
+        private double[][] pending;
+        // The most recent linear stage on its own, for blend()
+        private double[][] lastStage;
+        private double[][] beforeLastStage;
+
+        /**
+         * Classic gamma-space colorblindness simulation. NONE is an identity stage.
+         */
+        public Builder simulate(ColorTransformer.Mode mode) {
+            double[][] matrix = ColorTransformer.simulationMatrix(mode);
+            linear(affine(matrix != null ? matrix : Matrices.identity(), 0));
+            return this;
+        }
+
+        /**
+         * Partial deficiency (protanomaly, deuteranomaly, tritanomaly): 0 is normal vision
+         * and 1 the same as simulate(mode). See SeverityMatrices.
+         */
+        public Builder simulate(ColorTransformer.Mode mode, float severity) {
+            if (severity >= 1f) return simulate(mode);
+            double[][] matrix = severity > 0f ? SeverityMatrices.gamma(mode, severity) : null;
+            linear(affine(matrix != null ? matrix : Matrices.identity(), 0));
+            return this;
+        }
+
+        /**
+         * Daltonization for a mode: colors the viewer confuses are pushed apart by moving
+         * the lost difference (original minus simulation) into the channels they can see.
+         */
+        public Builder daltonize(ColorTransformer.Mode mode) {
+            return daltonize(mode, 1f);
+        }
+
+        /**
+         * Daltonization tuned for a partial deficiency; the milder the deficiency, the
+         * smaller the correction. Simulation and correction fold into one matrix.
+         */
+        public Builder daltonize(ColorTransformer.Mode mode, float severity) {
+            double[][] simulation = severity >= 1f
+                    ? ColorTransformer.simulationMatrix(mode)
+                    : severity > 0f ? SeverityMatrices.gamma(mode, severity) : null;
+            linear(affine(simulation != null ? correctionMatrix(mode, simulation) : Matrices.identity(), 0));
+            return this;
+        }
+
+        /**
+         * Mixes the previous linear stage with its own input: 0 undoes it, 1 keeps it
+         * as is. Used for partial color vision deficiency.
+         */
+        public Builder blend(float amount) {
+            if (lastStage == null) {
+                throw new IllegalStateException("blend() must follow a linear stage");
+            }
+            double[][] blended = new double[3][4];
+            for (int row = 0; row < 3; row++) {
+                for (int column = 0; column < 4; column++) {
+                    double identity = row == column ? 1 : 0;
+                    blended[row][column] = identity + (lastStage[row][column] - identity) * amount;
+                }
+            }
+            // Swap the last stage for its blended version
+            pending = beforeLastStage != null ? compose(blended, beforeLastStage) : blended;
+            lastStage = blended;
+            return this;
+        }
+
+        /**
+         * Brightness in -1..1 of the full range, contrast as a gain around mid gray.
+         */
+        public Builder brightnessContrast(float brightness, float contrast) {
+            double offset = 127.5 * (1 - contrast) + brightness * 255;
+            linear(affine(new double[][]{{contrast, 0, 0}, {0, contrast, 0}, {0, 0, contrast}}, offset));
+            return this;
+        }
+
+        /**
+         * Arbitrary 3x3 matrix on gamma-encoded (r, g, b).
+         */
+        public Builder matrix(double[][] matrix) {
+            linear(affine(matrix, 0));
+            return this;
+        }
+
+        /**
+         * Any other per-pixel kernel, e.g. LinearLightKernel. Ends the current run of
+         * folded linear stages.
+         */
+        public Builder kernel(PixelKernel kernel) {
+            if (!kernel.isIdentity()) {
+                flush();
+                kernels.add(kernel);
+            }
+            lastStage = null;
+            return this;
+        }
+
+        public ColorPipeline build() {
+            flush();
+            return new ColorPipeline(kernels.toArray(new PixelKernel[0]));
+        }
+
+        private void linear(double[][] stage) {
+            beforeLastStage = pending;
+            pending = pending != null ? compose(stage, pending) : stage;
+            lastStage = stage;
+        }
+
+        private void flush() {
+            if (pending != null && !isIdentity(pending)) {
+                kernels.add(new AffineKernel(pending));
+            }
+            pending = null;
+            beforeLastStage = null;
+        }
+    }
+
+    /**
+     * I + shift * (I - simulation): the original plus the lost difference moved into
+     * visible channels. Works on whichever space the simulation matrix is in.
+     */
+    static double[][] correctionMatrix(ColorTransformer.Mode mode, double[][] simulation) {
+        double[][] error = Matrices.identity();
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                error[row][column] -= simulation[row][column];
+            }
+        }
+        double[][] shift = mode == ColorTransformer.Mode.TRITANOPIA
+                ? DALTONIZE_SHIFT_TRITAN
+                : DALTONIZE_SHIFT_RED_GREEN;
+        double[][] correction = Matrices.multiply(shift, error);
+        for (int i = 0; i < 3; i++) {
+            correction[i][i] += 1;
+        }
+        return correction;
+    }
+
+    private static double[][] affine(double[][] matrix, double offset) {
+        double[][] result = new double[3][4];
+        for (int row = 0; row < 3; row++) {
+            System.arraycopy(matrix[row], 0, result[row], 0, 3);
+            result[row][3] = offset;
+        }
+        return result;
+    }
+
+    // outer(inner(x)) for 3x4 affine matrices
+    private static double[][] compose(double[][] outer, double[][] inner) {
+        double[][] result = new double[3][4];
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 4; column++) {
+                double sum = outer[row][0] * inner[0][column]
+                        + outer[row][1] * inner[1][column]
+                        + outer[row][2] * inner[2][column];
+                result[row][column] = column == 3 ? sum + outer[row][3] : sum;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIdentity(double[][] m) {
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 4; column++) {
+                if (Math.abs(m[row][column] - (row == column ? 1 : 0)) > 1e-9) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A folded run of linear stages in 16.16 fixed point, same arithmetic as
+     * ColorTransformer.transformPixelsFixed plus a per-channel offset.
+     */
+    private static final class AffineKernel implements PixelKernel {
+        private final int[] fixed = new int[12];
+        private final float[] colorMatrix;
+
+        AffineKernel(double[][] m) {
+            for (int row = 0; row < 3; row++) {
+                double magnitude = 0;
+                for (int column = 0; column < 4; column++) {
+                    fixed[row * 4 + column] = (int) Math.round(m[row][column] * 65536);
+                    magnitude += Math.abs(m[row][column]) * (column == 3 ? 1 : 255);
+                }
+                // Keep the integer dot product inside an int
+                if (magnitude >= 32768) {
+                    throw new IllegalArgumentException("Color pipeline matrix out of range");
+                }
+            }
+            colorMatrix = new float[]{
+                    (float) m[0][0], (float) m[0][1], (float) m[0][2], 0, (float) m[0][3],
+                    (float) m[1][0], (float) m[1][1], (float) m[1][2], 0, (float) m[1][3],
+                    (float) m[2][0], (float) m[2][1], (float) m[2][2], 0, (float) m[2][3],
+                    0, 0, 0, 1, 0
+            };
+        }
+
+        @Override
+        public void transform(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+            int[] m = fixed;
+            int m00 = m[0], m01 = m[1], m02 = m[2], o0 = m[3];
+            int m10 = m[4], m11 = m[5], m12 = m[6], o1 = m[7];
+            int m20 = m[8], m21 = m[9], m22 = m[10], o2 = m[11];
+            for (int i = 0; i < count; i++) {
+                int color = src[srcOffset + i];
+                int r = (color >> 16) & 0xFF;
+                int g = (color >> 8) & 0xFF;
+                int b = color & 0xFF;
+
+                int newR = clampChannel((m00 * r + m01 * g + m02 * b + o0) >> 16);
+                int newG = clampChannel((m10 * r + m11 * g + m12 * b + o1) >> 16);
+                int newB = clampChannel((m20 * r + m21 * g + m22 * b + o2) >> 16);
+
+                dst[dstOffset + i] = (color & 0xFF000000) | (newR << 16) | (newG << 8) | newB;
+            }
+        }
+
+        private static int clampChannel(int value) {
+            return value < 0 ? 0 : (value > 255 ? 255 : value);
+        }
+
+        @Override
+        public float[] getColorMatrix() {
+            return colorMatrix.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof AffineKernel && Arrays.equals(fixed, ((AffineKernel) o).fixed);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(fixed);
+        }
+    }
+}
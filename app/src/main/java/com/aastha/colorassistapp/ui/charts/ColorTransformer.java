@@ -149,6 +149,260 @@ public class ColorTransformer {
         }
     }
 
+    /**
+     * Bulk variant of transformColor for a run of packed ARGB pixels.
+     * The mode is resolved once per call and nothing is allocated, so callers can
+     * stream a bitmap through a reused row buffer. src and dst may be the same array.
+     */
+    public static void transformPixels(int[] src, int srcOffset, int[] dst, int dstOffset,
+                                       int count, Mode mode) {
+        // Every mode is a matrix, so the integer kernel covers them all (NONE copies)
+        transformPixelsFixed(src, srcOffset, dst, dstOffset, count, mode);
+    }
+
+    /**
+     * All three dichromacy simulations of the same pixels. Runs the integer kernel once
+     * per mode; keep count cache-sized so the source is still hot for the later passes.
+     */
+    public static void transformPixelsAllModes(int[] src, int srcOffset,
+                                               int[] protanopia, int protanopiaOffset,
+                                               int[] deuteranopia, int deuteranopiaOffset,
+                                               int[] tritanopia, int tritanopiaOffset,
+                                               int count) {
+        transformPixelsFixed(src, srcOffset, protanopia, protanopiaOffset, count, Mode.PROTANOPIA);
+        transformPixelsFixed(src, srcOffset, deuteranopia, deuteranopiaOffset, count, Mode.DEUTERANOPIA);
+        transformPixelsFixed(src, srcOffset, tritanopia, tritanopiaOffset, count, Mode.TRITANOPIA);
+    }
+
+    /**
+     * Exact float path for a run of pixels, matching the apply* methods bit for bit.
+     * Used as the reference in tests.
+     */
+    public static void transformPixelsExact(int[] src, int srcOffset, int[] dst, int dstOffset,
+                                            int count, Mode mode) {
+        switch (mode) {
+            case PROTANOPIA:
+                protanopiaPixels(src, srcOffset, dst, dstOffset, count);
+                break;
+            case DEUTERANOPIA:
+                deuteranopiaPixels(src, srcOffset, dst, dstOffset, count);
+                break;
+            case TRITANOPIA:
+                tritanopiaPixels(src, srcOffset, dst, dstOffset, count);
+                break;
+            case NONE:
+            default:
+                if (src != dst || srcOffset != dstOffset) {
+                    System.arraycopy(src, srcOffset, dst, dstOffset, count);
+                }
+                break;
+        }
+    }
+
+    // Same math as applyProtanopia, unpacking channels with shifts instead of Color calls
+    private static void protanopiaPixels(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            int color = src[srcOffset + i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+
+            float L = (float) (0.567 * r + 0.433 * g);
+            float M = (float) (0.558 * r + 0.442 * g);
+            float S = (float) (b);
+
+            int newR = (int) Math.min(255, Math.max(0, 0.299 * L + 0.701 * M));
+            int newG = (int) Math.min(255, Math.max(0, 0.169 * L + 0.831 * M));
+            int newB = (int) Math.min(255, Math.max(0, S));
+
+            dst[dstOffset + i] = (color & 0xFF000000) | (newR << 16) | (newG << 8) | newB;
+        }
+    }
+
+    // Same math as applyDeuteranopia
+    private static void deuteranopiaPixels(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            int color = src[srcOffset + i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+
+            float L = (float) (r);
+            float M = (float) (0.625 * r + 0.375 * g);
+            float S = (float) (b);
+
+            int newR = (int) Math.min(255, Math.max(0, 0.700 * L + 0.300 * M));
+            int newG = (int) Math.min(255, Math.max(0, 0.700 * L + 0.300 * M));
+            int newB = (int) Math.min(255, Math.max(0, S));
+
+            dst[dstOffset + i] = (color & 0xFF000000) | (newR << 16) | (newG << 8) | newB;
+        }
+    }
+
+    // Same math as applyTritanopia
+    private static void tritanopiaPixels(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            int color = src[srcOffset + i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+
+            float L = (float) (r);
+            float M = (float) (g);
+            float S = (float) (0.949 * b + 0.051 * r);
+
+            int newR = (int) Math.min(255, Math.max(0, L));
+            int newG = (int) Math.min(255, Math.max(0, 0.475 * M + 0.525 * S));
+            int newB = (int) Math.min(255, Math.max(0, 0.183 * M + 0.817 * S));
+
+            dst[dstOffset + i] = (color & 0xFF000000) | (newR << 16) | (newG << 8) | newB;
+        }
+    }
+
+    /**
+     * Cone response and output stages of the three simulations above, as 3x3 row-major
+     * matrices on (r, g, b). Each simulation is output * cone followed by a clamp.
+     */
+    private static final double[][] PROTANOPIA_CONE = {{0.567, 0.433, 0}, {0.558, 0.442, 0}, {0, 0, 1}};
+    private static final double[][] PROTANOPIA_OUT = {{0.299, 0.701, 0}, {0.169, 0.831, 0}, {0, 0, 1}};
+    private static final double[][] DEUTERANOPIA_CONE = {{1, 0, 0}, {0.625, 0.375, 0}, {0, 0, 1}};
+    private static final double[][] DEUTERANOPIA_OUT = {{0.700, 0.300, 0}, {0.700, 0.300, 0}, {0, 0, 1}};
+    private static final double[][] TRITANOPIA_CONE = {{1, 0, 0}, {0, 1, 0}, {0.051, 0, 0.949}};
+    private static final double[][] TRITANOPIA_OUT = {{1, 0, 0}, {0, 0.475, 0.525}, {0, 0.183, 0.817}};
+
+    /**
+     * Returns the simulation as an Android ColorMatrix array (4x5, row-major) so it can be
+     * applied at draw time with a ColorMatrixColorFilter, or null when the mode has no
+     * linear form (NONE is the identity and needs no filter).
+     */
+    public static float[] getColorMatrix(Mode mode) {
+        double[][] matrix = simulationMatrix(mode);
+        return matrix != null ? toColorMatrix(matrix) : null;
+    }
+
+    /**
+     * Composed 3x3 simulation matrix on gamma-encoded (r, g, b), or null for NONE.
+     */
+    static double[][] simulationMatrix(Mode mode) {
+        switch (mode) {
+            case PROTANOPIA:
+                return Matrices.multiply(PROTANOPIA_OUT, PROTANOPIA_CONE);
+            case DEUTERANOPIA:
+                return Matrices.multiply(DEUTERANOPIA_OUT, DEUTERANOPIA_CONE);
+            case TRITANOPIA:
+                return Matrices.multiply(TRITANOPIA_OUT, TRITANOPIA_CONE);
+            case NONE:
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Integer fixed-point variant of the simulation for a run of packed ARGB pixels.
+     * Uses the composed 3x3 matrix in 16.16 form with shifts and masks only, no float
+     * conversion per pixel. Within one level per channel of transformPixelsExact.
+     */
+    public static void transformPixelsFixed(int[] src, int srcOffset, int[] dst, int dstOffset,
+                                            int count, Mode mode) {
+        int[] m = fixedPointMatrix(mode);
+        if (m == null) {
+            if (src != dst || srcOffset != dstOffset) {
+                System.arraycopy(src, srcOffset, dst, dstOffset, count);
+            }
+            return;
+        }
+
+        int m00 = m[0], m01 = m[1], m02 = m[2];
+        int m10 = m[3], m11 = m[4], m12 = m[5];
+        int m20 = m[6], m21 = m[7], m22 = m[8];
+        for (int i = 0; i < count; i++) {
+            int color = src[srcOffset + i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+
+            int newR = clampChannel((m00 * r + m01 * g + m02 * b) >> 16);
+            int newG = clampChannel((m10 * r + m11 * g + m12 * b) >> 16);
+            int newB = clampChannel((m20 * r + m21 * g + m22 * b) >> 16);
+
+            dst[dstOffset + i] = (color & 0xFF000000) | (newR << 16) | (newG << 8) | newB;
+        }
+    }
+
+    private static int clampChannel(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    private static final int[][] FIXED_POINT_MATRICES = new int[Mode.values().length][];
+
+    // 16.16 coefficients from getColorMatrix, built once per mode
+    private static int[] fixedPointMatrix(Mode mode) {
+        synchronized (FIXED_POINT_MATRICES) {
+            int[] fixed = FIXED_POINT_MATRICES[mode.ordinal()];
+            if (fixed == null) {
+                float[] colorMatrix = getColorMatrix(mode);
+                if (colorMatrix == null) return null;
+                fixed = new int[9];
+                for (int row = 0; row < 3; row++) {
+                    for (int column = 0; column < 3; column++) {
+                        fixed[row * 3 + column] = Math.round(colorMatrix[row * 5 + column] * 65536f);
+                    }
+                }
+                FIXED_POINT_MATRICES[mode.ordinal()] = fixed;
+            }
+            return fixed;
+        }
+    }
+
+    private static float[] toColorMatrix(double[][] m) {
+        return new float[]{
+                (float) m[0][0], (float) m[0][1], (float) m[0][2], 0, 0,
+                (float) m[1][0], (float) m[1][1], (float) m[1][2], 0, 0,
+                (float) m[2][0], (float) m[2][1], (float) m[2][2], 0, 0,
+                0, 0, 0, 1, 0
+        };
+    }
+
+    private static final PixelKernel[] KERNELS = new PixelKernel[Mode.values().length];
+
+    /**
+     * Shared kernel running transformPixels for a mode. The same instance is returned
+     * for a mode every time, so kernels can key caches.
+     */
+    public static PixelKernel kernelFor(Mode mode) {
+        synchronized (KERNELS) {
+            PixelKernel kernel = KERNELS[mode.ordinal()];
+            if (kernel == null) {
+                kernel = new ModeKernel(mode);
+                KERNELS[mode.ordinal()] = kernel;
+            }
+            return kernel;
+        }
+    }
+
+    private static final class ModeKernel implements PixelKernel {
+        private final Mode mode;
+
+        ModeKernel(Mode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public void transform(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+            transformPixels(src, srcOffset, dst, dstOffset, count, mode);
+        }
+
+        @Override
+        public float[] getColorMatrix() {
+            return ColorTransformer.getColorMatrix(mode);
+        }
+
+        @Override
+        public boolean isIdentity() {
+            return mode == Mode.NONE;
+        }
+    }
+
     /**
      * Colorblindness mode enumeration
      */
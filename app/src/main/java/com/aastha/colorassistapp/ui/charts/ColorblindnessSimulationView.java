@@ -2,7 +2,15 @@ package com.aastha.colorassistapp.ui.charts;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.ColorMatrixColorFilter;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
@@ -10,13 +18,84 @@ import android.view.ScaleGestureDetector;
 
 import androidx.appcompat.widget.AppCompatImageView;
 
+import com.aastha.colorassistapp.BitmapPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
 public class ColorblindnessSimulationView extends AppCompatImageView {
 
     private Bitmap originalBitmap;
     private Bitmap transformedBitmap;
+    private int contentWidth;
+    private int contentHeight;
     private ColorblindnessMode colorblindnessMode = ColorblindnessMode.NONE;
 
+    // One render thread for all instances; it coordinates the engine's worker pool
+    private static final ExecutorService RENDER_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private static final int COMPARISON_STRIP_ROWS = 16;
+    private static final String[] COMPARISON_LABELS = {"Normal", "Protanopia", "Deuteranopia", "Tritanopia"};
+
+    // Previews are downsampled by at least 4x and kept to about 512px on the long side
+    private static final int PREVIEW_MIN_SAMPLE = 4;
+    private static final int PREVIEW_MAX_DIMENSION = 512;
+
+    private final AtomicInteger renderGeneration = new AtomicInteger();
+    private Future<?> pendingRender;
+    private SimulationCache simulationCache;
+    private BitmapPool bitmapPool;
+    // Preview currently on screen; it is not cached, so it goes back to the pool once replaced
+    private Bitmap previewBitmap;
+    private boolean pendingMatrixReset;
+    private boolean zeroCopyEnabled = true;
+    private boolean linearLightEnabled;
+    private float severity = 1f;
+    private boolean correctionEnabled;
+    // Only touched on the render thread
+    private int[] tileBuffer;
+    private Bitmap previewSource;
+    private Bitmap previewOwner;
+    private int[] previewBuffer;
+
+    // Comparison grid for the current source, main thread only
+    private Bitmap comparisonBitmap;
+    private Bitmap comparisonOwner;
+    private final float[] labelPoints = new float[8];
+    private Paint labelPaint;
+
+    // Tiles of the render in flight, main thread only
+    private Bitmap progressiveBitmap;
+    private TileGrid progressiveTiles;
+    private boolean[] progressiveDone;
+    private final Rect tileRect = new Rect();
+    private final Paint tilePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // Zoomed-out levels of the source (shared by every color-filter mode) and of the
+    // baked image on screen, main thread only
+    private MipPyramid sourcePyramid;
+    private MipPyramid bakedPyramid;
+    // What the ImageView actually draws: transformedBitmap or one of its mip levels
+    private Bitmap drawnBitmap;
+
+    // Full-resolution tiles of a streamed image, drawn over the overview when zoomed in
+    private RegionTileLoader regionLoader;
+    // Kept across a detach so the loader can be recreated when the view is reattached
+    private BitmapRegionDecoder regionDecoder;
+    private boolean renderOnAttach;
+    private final Rect visibleContent = new Rect();
+    private final RectF regionDst = new RectF();
+    // Scratch for computeVisibleContentRect, which runs on every frame while zoomed in
+    private final Matrix inverseMatrix = new Matrix();
+    private final RectF visibleViewRect = new RectF();
+    private final Rect visibleMapped = new Rect();
+    private final Paint regionPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
     private final Matrix imageMatrix = new Matrix();
+    private final Matrix drawMatrix = new Matrix();
     private final float[] matrixValues = new float[9];
 
     private float minScale = 1.0f;
@@ -29,7 +108,8 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
         NONE,
         PROTANOPIA,
         DEUTERANOPIA,
-        TRITANOPIA
+        TRITANOPIA,
+        COMPARISON      // 2x2 grid of normal vision and all three simulations
     }
 
     public ColorblindnessSimulationView(Context context) {
@@ -49,6 +129,13 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
 
     private void init() {
         setScaleType(ScaleType.MATRIX);
+        simulationCache = SimulationCache.getInstance(getContext());
+        bitmapPool = BitmapPool.getInstance(getContext());
+
+        labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        labelPaint.setColor(Color.WHITE);
+        labelPaint.setTextSize(32f);
+        labelPaint.setShadowLayer(6, 2, 2, Color.BLACK);
 
         scaleGestureDetector = new ScaleGestureDetector(getContext(), new ScaleListener());
         gestureDetector = new GestureDetector(getContext(), new GestureListener());
@@ -67,41 +154,546 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
     }
 
     public void setBitmap(Bitmap bitmap) {
+        setBitmap(bitmap, null);
+    }
+
+    /**
+     * Shows an image too large to decode whole. bitmap is a subsampled overview that
+     * is simulated and shown like any chart; when zooming in needs more detail, tiles
+     * are decoded from decoder at the matching resolution, simulated and drawn on top.
+     * The caller keeps ownership of the decoder and recycles it once replaced.
+     */
+    public void setBitmap(Bitmap bitmap, BitmapRegionDecoder decoder) {
         if (bitmap != null) {
+            if (originalBitmap != null && originalBitmap != bitmap) {
+                simulationCache.evictSource(originalBitmap);
+                if (sourcePyramid != null) {
+                    sourcePyramid.discard(bitmapPool);
+                    sourcePyramid = null;
+                }
+                bitmapPool.put(comparisonBitmap);
+                comparisonBitmap = null;
+                comparisonOwner = null;
+            }
+            if (regionLoader != null && regionLoader.getDecoder() != decoder) {
+                regionLoader.release();
+                regionLoader = null;
+            }
+            regionDecoder = decoder;
+            if (decoder != null && regionLoader == null) {
+                regionLoader = new RegionTileLoader(decoder, this::postInvalidate);
+            }
             originalBitmap = bitmap;
-            transformBitmap();
-            configureInitialMatrix();
-            invalidate();
+            contentWidth = decoder != null ? decoder.getWidth() : bitmap.getWidth();
+            contentHeight = decoder != null ? decoder.getHeight() : bitmap.getHeight();
+            pendingMatrixReset = true;
+            requestRender();
         }
     }
 
     public void setColorblindnessMode(ColorblindnessMode mode) {
         colorblindnessMode = mode;
         if (originalBitmap != null) {
-            transformBitmap();
+            requestRender();
+        }
+    }
+
+    /**
+     * Starts rendering the current source and mode off the main thread. Any queued
+     * or running render is superseded; only the latest one is ever published, and
+     * the image on screen stays pannable/zoomable until then.
+     */
+    private void requestRender() {
+        final int generation = renderGeneration.incrementAndGet();
+        final Bitmap source = originalBitmap;
+        final PixelKernel kernel = currentKernel();
+
+        if (pendingRender != null) {
+            pendingRender.cancel(false);
+            pendingRender = null;
+        }
+        clearProgressive();
+        updateRegionKernel(kernel);
+
+        if (colorblindnessMode == ColorblindnessMode.COMPARISON) {
+            requestComparison(source, generation);
+            return;
+        }
+
+        if (kernel.isIdentity()) {
+            publishBitmap(source, null);
+            return;
+        }
+
+        // Linear modes can be drawn straight from the original with a color filter
+        float[] colorMatrix = zeroCopyEnabled ? kernel.getColorMatrix() : null;
+        if (colorMatrix != null) {
+            publishBitmap(source, new ColorMatrixColorFilter(colorMatrix));
+            return;
+        }
+
+        Bitmap cached = simulationCache.get(source, kernel);
+        if (cached != null) {
+            publishBitmap(cached, null);
+            return;
+        }
+
+        // A new chart will be fitted to the view, so all of it is about to be visible
+        final Rect viewport = pendingMatrixReset
+                ? new Rect(0, 0, source.getWidth(), source.getHeight())
+                : computeVisibleSourceRect(source);
+        pendingRender = RENDER_EXECUTOR.submit(() -> {
+            renderPreview(source, kernel, generation);
+            renderTiles(source, kernel, viewport, generation);
+        });
+    }
+
+    // Streamed tiles follow the same transform as the overview: filtered when it is
+    // drawn with a color filter, baked otherwise
+    private void updateRegionKernel(PixelKernel kernel) {
+        if (regionLoader == null) return;
+        float[] colorMatrix = zeroCopyEnabled ? kernel.getColorMatrix() : null;
+        regionLoader.setKernel(kernel, colorMatrix == null);
+        regionPaint.setColorFilter(colorMatrix != null ? new ColorMatrixColorFilter(colorMatrix) : null);
+    }
+
+    private void requestComparison(Bitmap source, int generation) {
+        if (comparisonOwner == source) {
+            publishBitmap(comparisonBitmap, null);
+            return;
+        }
+
+        pendingRender = RENDER_EXECUTOR.submit(() -> {
+            Bitmap grid = bitmapPool.get(comparisonWidth(source), comparisonHeight(source));
+            if (!renderComparison(source, grid, () -> renderGeneration.get() != generation)) {
+                bitmapPool.put(grid);
+                return;
+            }
+            post(() -> {
+                if (renderGeneration.get() == generation) {
+                    bitmapPool.put(comparisonBitmap);
+                    comparisonBitmap = grid;
+                    comparisonOwner = source;
+                    publishBitmap(grid, null);
+                } else {
+                    bitmapPool.put(grid);
+                }
+            });
+        });
+    }
+
+    /**
+     * Builds the comparison grid at half resolution per cell: normal vision top left,
+     * protanopia top right, deuteranopia bottom left, tritanopia bottom right. Source
+     * rows are read once per strip and all three simulations come out of one fused pass.
+     * grid must be comparisonWidth x comparisonHeight. Returns false if cancelled.
+     */
+    private static boolean renderComparison(Bitmap source, Bitmap grid, BooleanSupplier cancelled) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int cellWidth = Math.max(1, width / 2);
+        int cellHeight = Math.max(1, height / 2);
+
+        int[] sourceRows = new int[width * 2 * COMPARISON_STRIP_ROWS];
+        int[] normal = new int[cellWidth * COMPARISON_STRIP_ROWS];
+        int[] protanopia = new int[normal.length];
+        int[] deuteranopia = new int[normal.length];
+        int[] tritanopia = new int[normal.length];
+
+        for (int y = 0; y < cellHeight; y += COMPARISON_STRIP_ROWS) {
+            if (cancelled.getAsBoolean()) return false;
+
+            int rows = Math.min(COMPARISON_STRIP_ROWS, cellHeight - y);
+            int sourceTop = y * 2;
+            int sourceRowCount = Math.min(rows * 2, height - sourceTop);
+            source.getPixels(sourceRows, 0, width, 0, sourceTop, width, sourceRowCount);
+            MipPyramid.downsample2x(sourceRows, width, sourceRowCount, normal, cellWidth, rows);
+
+            ColorTransformer.transformPixelsAllModes(normal, 0, protanopia, 0, deuteranopia, 0,
+                    tritanopia, 0, cellWidth * rows);
+
+            grid.setPixels(normal, 0, cellWidth, 0, y, cellWidth, rows);
+            grid.setPixels(protanopia, 0, cellWidth, cellWidth, y, cellWidth, rows);
+            grid.setPixels(deuteranopia, 0, cellWidth, 0, cellHeight + y, cellWidth, rows);
+            grid.setPixels(tritanopia, 0, cellWidth, cellWidth, cellHeight + y, cellWidth, rows);
+        }
+        return true;
+    }
+
+    private static int comparisonWidth(Bitmap source) {
+        return Math.max(1, source.getWidth() / 2) * 2;
+    }
+
+    private static int comparisonHeight(Bitmap source) {
+        return Math.max(1, source.getHeight() / 2) * 2;
+    }
+
+    /**
+     * Render thread: simulates a cached low-resolution copy of the source and shows
+     * it straight away, scaled up by the view matrix, until the full tiles land.
+     */
+    private void renderPreview(Bitmap source, PixelKernel kernel, int generation) {
+        if (previewOwner != source) {
+            int sample = PREVIEW_MIN_SAMPLE;
+            while (Math.max(source.getWidth(), source.getHeight()) / sample > PREVIEW_MAX_DIMENSION) {
+                sample *= 2;
+            }
+            bitmapPool.put(previewSource);
+            previewSource = bitmapPool.get(
+                    Math.max(1, source.getWidth() / sample), Math.max(1, source.getHeight() / sample));
+            new Canvas(previewSource).drawBitmap(source, null,
+                    new Rect(0, 0, previewSource.getWidth(), previewSource.getHeight()),
+                    new Paint(Paint.FILTER_BITMAP_FLAG));
+            previewOwner = source;
+        }
+
+        Bitmap small = previewSource;
+        int width = small.getWidth();
+        int height = small.getHeight();
+        if (previewBuffer == null || previewBuffer.length < width * height) {
+            previewBuffer = new int[width * height];
+        }
+        int[] pixels = previewBuffer;
+        boolean completed = SimulationEngine.getDefault().transform(
+                (buffer, offset, y, rows) -> small.getPixels(buffer, offset, width, 0, y, width, rows),
+                pixels, width, height, kernel, () -> renderGeneration.get() != generation);
+        if (!completed) return;
+
+        Bitmap preview = bitmapPool.get(width, height);
+        preview.setPixels(pixels, 0, width, 0, 0, width, height);
+        post(() -> {
+            if (renderGeneration.get() == generation) {
+                publishBitmap(preview, null);
+                previewBitmap = preview;
+            } else {
+                bitmapPool.put(preview);
+            }
+        });
+    }
+
+    /**
+     * Render thread: bakes the simulation tile by tile, visible tiles first. Each
+     * finished tile is handed to the main thread and drawn over the current image.
+     */
+    private void renderTiles(Bitmap source, PixelKernel kernel, Rect viewport, int generation) {
+        BooleanSupplier cancelled = () -> renderGeneration.get() != generation;
+        if (cancelled.getAsBoolean()) return;
+        TileGrid grid = new TileGrid(source.getWidth(), source.getHeight());
+        Bitmap result = bitmapPool.get(grid.width, grid.height);
+        post(() -> startProgressive(generation, result, grid));
+
+        if (tileBuffer == null) {
+            tileBuffer = new int[TileGrid.TILE_SIZE * TileGrid.TILE_SIZE];
+        }
+        int[] pixels = tileBuffer;
+
+        for (int index : grid.priorityOrder(viewport)) {
+            int left = grid.left(index);
+            int top = grid.top(index);
+            int tileWidth = grid.tileWidth(index);
+            int tileHeight = grid.tileHeight(index);
+
+            boolean completed = SimulationEngine.getDefault().transform(
+                    (buffer, offset, y, rows) ->
+                            source.getPixels(buffer, offset, tileWidth, left, top + y, tileWidth, rows),
+                    pixels, tileWidth, tileHeight, kernel, cancelled);
+            if (!completed) {
+                // Superseded; the main thread has already stopped drawing it
+                bitmapPool.put(result);
+                return;
+            }
+
+            result.setPixels(pixels, 0, tileWidth, left, top, tileWidth, tileHeight);
+            post(() -> onTileRendered(generation, index));
+        }
+
+        // Pinned before caching so an immediate eviction cannot recycle it under the view;
+        // publishing takes a pin of its own
+        bitmapPool.pin(result);
+        simulationCache.put(source, kernel, result);
+        post(() -> {
+            if (renderGeneration.get() == generation) {
+                clearProgressive();
+                publishBitmap(result, null);
+            }
+            bitmapPool.unpin(result);
+        });
+    }
+
+    private void startProgressive(int generation, Bitmap bitmap, TileGrid grid) {
+        if (renderGeneration.get() != generation) return;
+        progressiveBitmap = bitmap;
+        progressiveTiles = grid;
+        progressiveDone = new boolean[grid.count()];
+    }
+
+    private void onTileRendered(int generation, int index) {
+        if (renderGeneration.get() != generation || progressiveDone == null) return;
+        progressiveDone[index] = true;
+        invalidate();
+    }
+
+    private void clearProgressive() {
+        progressiveBitmap = null;
+        progressiveTiles = null;
+        progressiveDone = null;
+    }
+
+    /**
+     * Part of the source bitmap currently on screen, from the inverse image matrix.
+     * Falls back to the whole bitmap before the view has been laid out.
+     */
+    private Rect computeVisibleSourceRect(Bitmap source) {
+        Rect visible = new Rect();
+        computeVisibleContentRect(visible);
+        // A streamed image's source is a subsampled overview of the content
+        if (source.getWidth() != contentWidth) {
+            float scaleX = (float) source.getWidth() / contentWidth;
+            float scaleY = (float) source.getHeight() / contentHeight;
+            visible.set((int) (visible.left * scaleX), (int) (visible.top * scaleY),
+                    (int) Math.ceil(visible.right * scaleX), (int) Math.ceil(visible.bottom * scaleY));
+        }
+        return visible;
+    }
+
+    /**
+     * Part of the content (full-resolution image) currently on screen.
+     */
+    private void computeVisibleContentRect(Rect out) {
+        out.set(0, 0, contentWidth, contentHeight);
+        if (getWidth() == 0 || getHeight() == 0 || !imageMatrix.invert(inverseMatrix)) {
+            return;
+        }
+
+        visibleViewRect.set(0, 0, getWidth(), getHeight());
+        inverseMatrix.mapRect(visibleViewRect);
+        visibleViewRect.roundOut(visibleMapped);
+        out.intersect(visibleMapped);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (transformedBitmap != null && transformedBitmap == comparisonBitmap) {
+            drawComparisonLabels(canvas);
+        } else if (regionLoader != null && transformedBitmap != null) {
+            drawRegionTiles(canvas);
+        }
+        if (progressiveBitmap == null) return;
+
+        // Finished tiles of an in-flight render, drawn over the previous image
+        int saveCount = canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        canvas.concat(imageMatrix);
+        canvas.scale((float) contentWidth / progressiveTiles.width, (float) contentHeight / progressiveTiles.height);
+        for (int i = 0; i < progressiveDone.length; i++) {
+            if (!progressiveDone[i]) continue;
+            progressiveTiles.getBounds(i, tileRect);
+            canvas.drawBitmap(progressiveBitmap, tileRect, tileRect, tilePaint);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Draws streamed tiles for the visible part of the content once the overview no
+     * longer has enough pixels for the zoom level, and queues the missing ones.
+     * Missing tiles just leave the overview showing through.
+     */
+    private void drawRegionTiles(Canvas canvas) {
+        float scale = getCurrentScale();
+        if (scale * contentWidth <= originalBitmap.getWidth()) return;
+
+        int sample = RegionTileLoader.sampleSizeFor(scale);
+        int span = RegionTileLoader.TILE_SIZE * sample;
+        computeVisibleContentRect(visibleContent);
+        if (visibleContent.isEmpty()) return;
+
+        int firstColumn = visibleContent.left / span;
+        int lastColumn = (visibleContent.right - 1) / span;
+        int firstRow = visibleContent.top / span;
+        int lastRow = (visibleContent.bottom - 1) / span;
+
+        regionLoader.beginRequests();
+        int saveCount = canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        canvas.concat(imageMatrix);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Bitmap tile = regionLoader.get(sample, column, row);
+                if (tile == null) {
+                    regionLoader.request(sample, column, row);
+                    continue;
+                }
+                regionDst.set(column * span, row * span,
+                        Math.min((column + 1) * span, contentWidth), Math.min((row + 1) * span, contentHeight));
+                canvas.drawBitmap(tile, null, regionDst, regionPaint);
+            }
+        }
+        canvas.restoreToCount(saveCount);
+        regionLoader.submitRequests();
+    }
+
+    private void publishBitmap(Bitmap bitmap, ColorFilter filter) {
+        // The bitmap on screen must not be reused until something else replaces it
+        if (bitmap != transformedBitmap) {
+            bitmapPool.pin(bitmap);
+            bitmapPool.unpin(transformedBitmap);
+        }
+        if (previewBitmap != null && previewBitmap != bitmap) {
+            bitmapPool.put(previewBitmap);
+            previewBitmap = null;
+        }
+        // Baked bitmaps can be reused once off screen, so their levels cannot be kept
+        if (bakedPyramid != null && bakedPyramid.base != bitmap) {
+            bakedPyramid.discard(bitmapPool);
+            bakedPyramid = null;
+        }
+        transformedBitmap = bitmap;
+        setDrawnBitmap(bitmap);
+        if (filter != null) {
+            setColorFilter(filter);
+        } else {
+            clearColorFilter();
+        }
+        if (pendingMatrixReset) {
+            pendingMatrixReset = false;
             configureInitialMatrix();
-            invalidate();
+        } else {
+            applyImageMatrix();
+        }
+        invalidate();
+    }
+
+    /**
+     * Toggles drawing linear simulations with a ColorMatrixColorFilter on the original
+     * bitmap instead of baking a transformed copy. Enabled by default.
+     */
+    public void setZeroCopyEnabled(boolean enabled) {
+        if (zeroCopyEnabled == enabled) return;
+        zeroCopyEnabled = enabled;
+        if (originalBitmap != null) {
+            requestRender();
         }
     }
 
-    private void transformBitmap() {
-        if (originalBitmap == null) return;
+    /**
+     * Switches between the classic gamma-space simulations and the linear-light LMS
+     * model (see LinearLightKernel). The linear-light model cannot be expressed as a
+     * color filter, so it is always baked through the tiled render path.
+     */
+    public void setLinearLightEnabled(boolean enabled) {
+        if (linearLightEnabled == enabled) return;
+        linearLightEnabled = enabled;
+        if (originalBitmap != null) {
+            requestRender();
+        }
+    }
+
+    public boolean isLinearLightEnabled() {
+        return linearLightEnabled;
+    }
+
+    /**
+     * Severity of the simulated deficiency, 0 (normal vision) to 1 (full dichromacy).
+     * Cheap to call on every slider step: the classic model only swaps the color
+     * filter, and baked renders go through the same cancellable async path as a
+     * mode change.
+     */
+    public void setSeverity(float severity) {
+        severity = Math.max(0f, Math.min(1f, severity));
+        if (this.severity == severity) return;
+        this.severity = severity;
+        if (originalBitmap != null && colorblindnessMode != ColorblindnessMode.COMPARISON) {
+            requestRender();
+        }
+    }
 
-        transformedBitmap = originalBitmap.copy(originalBitmap.getConfig(), true);
+    public float getSeverity() {
+        return severity;
+    }
 
-        int width = transformedBitmap.getWidth();
-        int height = transformedBitmap.getHeight();
+    /**
+     * Shows the chart corrected (daltonized) for the selected deficiency instead of
+     * simulating it. Correction is folded into the same single pass, so toggling it
+     * costs no more than switching modes.
+     */
+    public void setCorrectionEnabled(boolean enabled) {
+        if (correctionEnabled == enabled) return;
+        correctionEnabled = enabled;
+        if (originalBitmap != null && colorblindnessMode != ColorblindnessMode.COMPARISON) {
+            requestRender();
+        }
+    }
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = transformedBitmap.getPixel(x, y);
-                int transformedPixel =
-                        ColorTransformer.transformColor(pixel, convertMode(colorblindnessMode));
-                transformedBitmap.setPixel(x, y, transformedPixel);
+    public boolean isCorrectionEnabled() {
+        return correctionEnabled;
+    }
+
+    /**
+     * Bakes the current simulation into a standalone bitmap, e.g. for export. Blocks,
+     * so call it off the main thread. Returns null when no chart is loaded.
+     */
+    public Bitmap exportSimulatedBitmap() {
+        Bitmap source = originalBitmap;
+        if (source == null) return null;
+
+        // Copies, since cached and pooled bitmaps are reused once replaced
+        if (colorblindnessMode == ColorblindnessMode.COMPARISON) {
+            if (comparisonOwner == source) {
+                return comparisonBitmap.copy(Bitmap.Config.ARGB_8888, false);
             }
+            Bitmap grid = Bitmap.createBitmap(comparisonWidth(source), comparisonHeight(source),
+                    Bitmap.Config.ARGB_8888);
+            renderComparison(source, grid, () -> false);
+            return grid;
         }
 
-        setImageBitmap(transformedBitmap);
+        PixelKernel kernel = currentKernel();
+        if (kernel.isIdentity()) return source.copy(Bitmap.Config.ARGB_8888, false);
+
+        Bitmap cached = simulationCache.get(source, kernel);
+        if (cached != null) return cached.copy(Bitmap.Config.ARGB_8888, false);
+
+        return transformBitmap(source, kernel, new int[source.getWidth() * source.getHeight()], () -> false);
+    }
+
+    /**
+     * Bakes the simulation through the parallel engine. Returns null if the render
+     * was superseded part way.
+     */
+    private static Bitmap transformBitmap(Bitmap source, PixelKernel kernel, int[] pixels,
+                                          BooleanSupplier cancelled) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        // Bands are read and transformed in parallel straight into one reused buffer
+        boolean completed = SimulationEngine.getDefault().transform(
+                (buffer, offset, y, rows) -> source.getPixels(buffer, offset, width, 0, y, width, rows),
+                pixels, width, height, kernel, cancelled);
+        if (!completed) return null;
+
+        Bitmap result = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        result.setPixels(pixels, 0, width, 0, 0, width, height);
+        return result;
+    }
+
+    /**
+     * Builds the effect chain for the current settings. Every stage is fused into one
+     * kernel, so adding effects does not add passes or bitmap copies.
+     */
+    private PixelKernel currentKernel() {
+        ColorTransformer.Mode mode = convertMode(colorblindnessMode);
+        ColorPipeline.Builder pipeline = new ColorPipeline.Builder();
+        if (linearLightEnabled) {
+            pipeline.kernel(correctionEnabled
+                    ? LinearLightKernel.forCorrection(mode, severity)
+                    : LinearLightKernel.forSeverity(mode, severity));
+        } else if (correctionEnabled) {
+            pipeline.daltonize(mode, severity);
+        } else {
+            pipeline.simulate(mode, severity);
+        }
+        return pipeline.build();
     }
 
     private ColorTransformer.Mode convertMode(ColorblindnessMode mode) {
@@ -129,8 +721,8 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
 
         float viewWidth = getWidth();
         float viewHeight = getHeight();
-        float bmWidth = transformedBitmap.getWidth();
-        float bmHeight = transformedBitmap.getHeight();
+        float bmWidth = contentWidth;
+        float bmHeight = contentHeight;
 
         // Fit center: scale so the image fully fits inside the view
         float scale = Math.min(viewWidth / bmWidth, viewHeight / bmHeight);
@@ -142,7 +734,69 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
         imageMatrix.postScale(scale, scale);
         imageMatrix.postTranslate(dx, dy);
 
-        setImageMatrix(imageMatrix);
+        applyImageMatrix();
+    }
+
+    /**
+     * imageMatrix maps source pixels to the view. The bitmap on screen may be a
+     * smaller preview, so it is drawn with the matrix pre-scaled to source size.
+     */
+    private void applyImageMatrix() {
+        Bitmap drawn = transformedBitmap != null ? chooseMipLevel(transformedBitmap) : null;
+        if (drawn != null) {
+            setDrawnBitmap(drawn);
+        }
+        drawMatrix.set(imageMatrix);
+        if (drawn != null && drawn.getWidth() != contentWidth) {
+            drawMatrix.preScale((float) contentWidth / drawn.getWidth(),
+                    (float) contentHeight / drawn.getHeight());
+        }
+        setImageMatrix(drawMatrix);
+    }
+
+    /**
+     * Mip level of bitmap closest to the current zoom. The pyramid is built in the
+     * background the first time a coarser level is wanted; until then the finest
+     * available level is used.
+     */
+    private Bitmap chooseMipLevel(Bitmap bitmap) {
+        MipPyramid pyramid = pyramidFor(bitmap);
+        if (pyramid == null || pyramid.levelCount() == 1) return bitmap;
+
+        float screenPixelsPerBasePixel = getCurrentScale() * contentWidth / bitmap.getWidth();
+        int level = pyramid.desiredLevel(screenPixelsPerBasePixel);
+        if (level > 0 && !pyramid.isBuilt()) {
+            pyramid.build(RENDER_EXECUTOR, bitmapPool, this, () -> {
+                applyImageMatrix();
+                invalidate();
+            });
+        }
+        return pyramid.bestAvailable(level);
+    }
+
+    private MipPyramid pyramidFor(Bitmap bitmap) {
+        if (bitmap == originalBitmap) {
+            if (sourcePyramid == null) {
+                sourcePyramid = new MipPyramid(bitmap);
+            }
+            return sourcePyramid;
+        }
+        // Previews are small already and replaced within moments
+        if (originalBitmap == null || bitmap.getWidth() * 2 <= originalBitmap.getWidth()) return null;
+        if (bakedPyramid == null) {
+            bakedPyramid = new MipPyramid(bitmap);
+        }
+        return bakedPyramid;
+    }
+
+    // Keeps whatever the ImageView draws pinned so it is not reused under it
+    private void setDrawnBitmap(Bitmap bitmap) {
+        if (bitmap == drawnBitmap) return;
+        Bitmap previous = drawnBitmap;
+        drawnBitmap = bitmap;
+        bitmapPool.pin(bitmap);
+        bitmapPool.unpin(previous);
+        setImageBitmap(bitmap);
     }
 
     @Override
@@ -162,8 +816,8 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
 
         float viewWidth = getWidth();
         float viewHeight = getHeight();
-        float bmWidth = transformedBitmap.getWidth();
-        float bmHeight = transformedBitmap.getHeight();
+        float bmWidth = contentWidth;
+        float bmHeight = contentHeight;
 
         imageMatrix.getValues(matrixValues);
         float scale = matrixValues[Matrix.MSCALE_X];
@@ -219,7 +873,7 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
                     detector.getFocusY());
 
             clampTranslation();
-            setImageMatrix(imageMatrix);
+            applyImageMatrix();
             invalidate();
             return true;
         }
@@ -235,7 +889,7 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
             if (getCurrentScale() > minScale) {
                 imageMatrix.postTranslate(-distanceX, -distanceY);
                 clampTranslation();
-                setImageMatrix(imageMatrix);
+                applyImageMatrix();
                 invalidate();
             }
             return true;
@@ -254,13 +908,63 @@ public class ColorblindnessSimulationView extends AppCompatImageView {
 
                 imageMatrix.postScale(factor, factor, e.getX(), e.getY());
                 clampTranslation();
-                setImageMatrix(imageMatrix);
+                applyImageMatrix();
                 invalidate();
             }
             return true;
         }
     }
 
+    private void drawComparisonLabels(Canvas canvas) {
+        float halfWidth = contentWidth / 2f;
+        float halfHeight = contentHeight / 2f;
+        labelPoints[0] = 0;         labelPoints[1] = 0;
+        labelPoints[2] = halfWidth; labelPoints[3] = 0;
+        labelPoints[4] = 0;         labelPoints[5] = halfHeight;
+        labelPoints[6] = halfWidth; labelPoints[7] = halfHeight;
+        imageMatrix.mapPoints(labelPoints);
+
+        float inset = labelPaint.getTextSize();
+        for (int i = 0; i < COMPARISON_LABELS.length; i++) {
+            canvas.drawText(COMPARISON_LABELS[i],
+                    getPaddingLeft() + labelPoints[i * 2] + inset / 2,
+                    getPaddingTop() + labelPoints[i * 2 + 1] + inset * 1.25f,
+                    labelPaint);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (!renderOnAttach) return;
+        renderOnAttach = false;
+        // Pick up where onDetachedFromWindow left off: new tile loader, fresh render
+        if (regionDecoder != null && regionLoader == null) {
+            regionLoader = new RegionTileLoader(regionDecoder, this::postInvalidate);
+        }
+        if (originalBitmap != null) {
+            requestRender();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // Drop any in-flight render so it neither finishes work nor posts to a dead view
+        renderGeneration.incrementAndGet();
+        if (pendingRender != null) {
+            pendingRender.cancel(false);
+            pendingRender = null;
+        }
+        clearProgressive();
+        // Tiles and the render are rebuilt in onAttachedToWindow if the view comes back
+        if (regionLoader != null) {
+            regionLoader.release();
+            regionLoader = null;
+        }
+        renderOnAttach = originalBitmap != null;
+    }
+
     public void resetZoom() {
         configureInitialMatrix();
         invalidate();
@@ -0,0 +1,191 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import java.util.Arrays;
+
+/**
+ * LinearLightKernel simulates dichromacy the physically meaningful way: sRGB is
+ * decoded to linear light, converted to LMS cone space, the missing cone's response
+ * is rebuilt from the other two (Viénot, Brettel and Mollon 1999) and the result is
+ * converted back and re-encoded.
+ *
+ * All the linear steps collapse into one 3x3 matrix per mode, and the sRGB curves
+ * are table lookups, so a pixel costs three decode reads, nine integer multiplies
+ * and three encode reads, about the same as the gamma-space kernels.
+ */
+public final class LinearLightKernel implements PixelKernel {
+
+    // Linear light is carried as 14-bit integers; the encode table covers every value
+    private static final int LINEAR_BITS = 14;
+    private static final int LINEAR_MAX = (1 << LINEAR_BITS) - 1;
+    // Matrix coefficients use the same 14-bit fraction
+    private static final int COEFFICIENT_BITS = 14;
+
+    private static final int[] DECODE = new int[256];
+    private static final byte[] ENCODE = new byte[LINEAR_MAX + 1];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            DECODE[i] = (int) Math.round(srgbToLinear(i / 255.0) * LINEAR_MAX);
+        }
+        for (int i = 0; i <= LINEAR_MAX; i++) {
+            ENCODE[i] = (byte) Math.round(linearToSrgb((double) i / LINEAR_MAX) * 255);
+        }
+    }
+
+    // Linear sRGB to LMS (Smith-Pokorny cone fundamentals, as used by Viénot et al.)
+    private static final double[][] LMS_FROM_RGB = {
+            {0.31399022, 0.63951294, 0.04649755},
+            {0.15537241, 0.75789446, 0.08670142},
+            {0.01775239, 0.10944209, 0.87256922}
+    };
+
+    private static final LinearLightKernel[] KERNELS = new LinearLightKernel[ColorTransformer.Mode.values().length];
+
+    private final int[] matrix;
+
+    private LinearLightKernel(double[][] rgbMatrix) {
+        this.matrix = new int[9];
+        for (int row = 0; row < 3; row++) {
+            double rowMagnitude = 0;
+            for (int column = 0; column < 3; column++) {
+                matrix[row * 3 + column] = (int) Math.round(rgbMatrix[row][column] * (1 << COEFFICIENT_BITS));
+                rowMagnitude += Math.abs(rgbMatrix[row][column]);
+            }
+            // Keep the integer dot product inside an int
+            if (rowMagnitude * LINEAR_MAX * (1 << COEFFICIENT_BITS) >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Linear-light matrix out of range");
+            }
+        }
+    }
+
+    /**
+     * Shared kernel for a mode. NONE maps to the identity kernel.
+     */
+    public static PixelKernel forMode(ColorTransformer.Mode mode) {
+        if (mode == ColorTransformer.Mode.NONE) return ColorTransformer.kernelFor(mode);
+        synchronized (KERNELS) {
+            LinearLightKernel kernel = KERNELS[mode.ordinal()];
+            if (kernel == null) {
+                kernel = new LinearLightKernel(simulationMatrix(mode));
+                KERNELS[mode.ordinal()] = kernel;
+            }
+            return kernel;
+        }
+    }
+
+    /**
+     * Kernel for a partial deficiency, 0 being normal vision and 1 the same as forMode.
+     * See SeverityMatrices.
+     */
+    public static PixelKernel forSeverity(ColorTransformer.Mode mode, float severity) {
+        if (severity >= 1f) return forMode(mode);
+        if (mode == ColorTransformer.Mode.NONE || severity <= 0f) {
+            return ColorTransformer.kernelFor(ColorTransformer.Mode.NONE);
+        }
+        return new LinearLightKernel(SeverityMatrices.linear(mode, severity));
+    }
+
+    @Override
+    public void transform(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+        int[] m = matrix;
+        int m00 = m[0], m01 = m[1], m02 = m[2];
+        int m10 = m[3], m11 = m[4], m12 = m[5];
+        int m20 = m[6], m21 = m[7], m22 = m[8];
+        int[] decode = DECODE;
+        byte[] encode = ENCODE;
+
+        for (int i = 0; i < count; i++) {
+            int color = src[srcOffset + i];
+            int r = decode[(color >> 16) & 0xFF];
+            int g = decode[(color >> 8) & 0xFF];
+            int b = decode[color & 0xFF];
+
+            int newR = encode[clampLinear((m00 * r + m01 * g + m02 * b) >> COEFFICIENT_BITS)] & 0xFF;
+            int newG = encode[clampLinear((m10 * r + m11 * g + m12 * b) >> COEFFICIENT_BITS)] & 0xFF;
+            int newB = encode[clampLinear((m20 * r + m21 * g + m22 * b) >> COEFFICIENT_BITS)] & 0xFF;
+
+            dst[dstOffset + i] = (color & 0xFF000000) | (newR << 16) | (newG << 8) | newB;
+        }
+    }
+
+    /**
+     * Daltonization done in linear light: the simulation error is computed and moved
+     * into visible channels within the same fused matrix, so it costs the same as
+     * simulating.
+     */
+    public static PixelKernel forCorrection(ColorTransformer.Mode mode, float severity) {
+        if (mode == ColorTransformer.Mode.NONE || severity <= 0f) {
+            return ColorTransformer.kernelFor(ColorTransformer.Mode.NONE);
+        }
+        double[][] simulation = severity >= 1f ? simulationMatrix(mode) : SeverityMatrices.linear(mode, severity);
+        return new LinearLightKernel(ColorPipeline.correctionMatrix(mode, simulation));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LinearLightKernel && Arrays.equals(matrix, ((LinearLightKernel) o).matrix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(matrix);
+    }
+
+    private static int clampLinear(int value) {
+        return value < 0 ? 0 : (value > LINEAR_MAX ? LINEAR_MAX : value);
+    }
+
+    /**
+     * Linear RGB to linear RGB matrix for a mode: RGB_from_LMS * projection * LMS_from_RGB.
+     */
+    static double[][] simulationMatrix(ColorTransformer.Mode mode) {
+        double[][] projection = projection(mode);
+        return Matrices.multiply(Matrices.invert(LMS_FROM_RGB), Matrices.multiply(projection, LMS_FROM_RGB));
+    }
+
+    /**
+     * Replaces the missing cone with a combination of the other two chosen so that
+     * white and one anchor primary are seen unchanged: blue for protanopia and
+     * deuteranopia, red for tritanopia (Viénot et al. 1999).
+     */
+    private static double[][] projection(ColorTransformer.Mode mode) {
+        double[] white = Matrices.multiply(LMS_FROM_RGB, new double[]{1, 1, 1});
+        double[] blue = Matrices.multiply(LMS_FROM_RGB, new double[]{0, 0, 1});
+        double[] red = Matrices.multiply(LMS_FROM_RGB, new double[]{1, 0, 0});
+
+        double[][] projection = Matrices.identity();
+        switch (mode) {
+            case PROTANOPIA:
+                projection[0] = rebuild(0, 1, 2, white, blue);
+                break;
+            case DEUTERANOPIA:
+                projection[1] = rebuild(1, 0, 2, white, blue);
+                break;
+            case TRITANOPIA:
+                projection[2] = rebuild(2, 0, 1, white, red);
+                break;
+            default:
+                break;
+        }
+        return projection;
+    }
+
+    // Solves missing = a * first + b * second through the two anchor colors
+    private static double[] rebuild(int missing, int first, int second, double[] anchor1, double[] anchor2) {
+        double det = anchor1[first] * anchor2[second] - anchor1[second] * anchor2[first];
+        double a = (anchor1[missing] * anchor2[second] - anchor1[second] * anchor2[missing]) / det;
+        double b = (anchor1[first] * anchor2[missing] - anchor1[missing] * anchor2[first]) / det;
+        double[] row = new double[3];
+        row[first] = a;
+        row[second] = b;
+        return row;
+    }
+
+    static double srgbToLinear(double v) {
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    static double linearToSrgb(double v) {
+        return v <= 0.0031308 ? v * 12.92 : 1.055 * Math.pow(v, 1 / 2.4) - 0.055;
+    }
+}
@@ -0,0 +1,52 @@
+package com.aastha.colorassistapp.ui.charts;
+
+/**
+ * Small 3x3 double matrix helpers for building color transforms. Only used when
+ * kernels are set up, never per pixel.
+ */
+final class Matrices {
+
+    private Matrices() {}
+
+    static double[][] identity() {
+        return new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+    }
+
+    static double[][] multiply(double[][] a, double[][] b) {
+        double[][] result = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                result[i][j] = a[i][0] * b[0][j] + a[i][1] * b[1][j] + a[i][2] * b[2][j];
+            }
+        }
+        return result;
+    }
+
+    static double[] multiply(double[][] m, double[] v) {
+        return new double[]{
+                m[0][0] * v[0] + m[0][1] * v[1] + m[0][2] * v[2],
+                m[1][0] * v[0] + m[1][1] * v[1] + m[1][2] * v[2],
+                m[2][0] * v[0] + m[2][1] * v[1] + m[2][2] * v[2]
+        };
+    }
+
+    static double[][] invert(double[][] m) {
+        double a = m[0][0], b = m[0][1], c = m[0][2];
+        double d = m[1][0], e = m[1][1], f = m[1][2];
+        double g = m[2][0], h = m[2][1], i = m[2][2];
+
+        double co00 = e * i - f * h;
+        double co01 = f * g - d * i;
+        double co02 = d * h - e * g;
+        double det = a * co00 + b * co01 + c * co02;
+        if (det == 0) {
+            throw new IllegalArgumentException("Matrix is not invertible");
+        }
+
+        return new double[][]{
+                {co00 / det, (c * h - b * i) / det, (b * f - c * e) / det},
+                {co01 / det, (a * i - c * g) / det, (c * d - a * f) / det},
+                {co02 / det, (b * g - a * h) / det, (a * e - b * d) / det}
+        };
+    }
+}
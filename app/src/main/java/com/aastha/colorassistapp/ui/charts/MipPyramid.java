@@ -0,0 +1,159 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import android.graphics.Bitmap;
+import android.view.View;
+
+import com.aastha.colorassistapp.BitmapPool;
+
+import java.util.concurrent.Executor;
+
+/**
+ * MipPyramid holds successively halved copies of a bitmap so a zoomed-out view can
+ * draw a level close to screen resolution instead of filtering the full image on
+ * every frame. Levels are built together in the background on first need, with a
+ * 2x2 box filter, into pooled bitmaps.
+ *
+ * Apart from the build itself, everything runs on the main thread.
+ */
+final class MipPyramid {
+
+    // Levels stop once the long side would drop below this
+    private static final int MIN_LEVEL_DIMENSION = 256;
+    private static final int STRIP_ROWS = 16;
+
+    final Bitmap base;
+    private final Bitmap[] levels;
+    private boolean building;
+    private volatile boolean discarded;
+
+    MipPyramid(Bitmap base) {
+        this.base = base;
+        int count = 1;
+        while (Math.max(base.getWidth(), base.getHeight()) >> count >= MIN_LEVEL_DIMENSION) {
+            count++;
+        }
+        levels = new Bitmap[count];
+        levels[0] = base;
+    }
+
+    int levelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Coarsest level that still has at least one pixel per screen pixel, given how many
+     * screen pixels one base pixel covers.
+     */
+    int desiredLevel(float screenPixelsPerBasePixel) {
+        int level = 0;
+        while (level + 1 < levels.length && screenPixelsPerBasePixel * (2 << level) <= 1f) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * The requested level if built, otherwise the nearest finer one that is.
+     */
+    Bitmap bestAvailable(int level) {
+        for (int i = Math.min(level, levels.length - 1); i > 0; i--) {
+            if (levels[i] != null) return levels[i];
+        }
+        return base;
+    }
+
+    boolean isBuilt() {
+        return levels.length == 1 || levels[1] != null;
+    }
+
+    /**
+     * Builds every level on executor and installs them on host's thread, then runs
+     * onBuilt. Does nothing if already built or building.
+     */
+    void build(Executor executor, BitmapPool pool, View host, Runnable onBuilt) {
+        if (building || isBuilt() || discarded) return;
+        building = true;
+        int count = levels.length;
+
+        executor.execute(() -> {
+            Bitmap[] built = new Bitmap[count];
+            built[0] = base;
+            for (int level = 1; level < count; level++) {
+                if (discarded) {
+                    release(pool, built);
+                    return;
+                }
+                Bitmap previous = built[level - 1];
+                built[level] = pool.get(Math.max(1, previous.getWidth() / 2), Math.max(1, previous.getHeight() / 2));
+                halve(previous, built[level]);
+            }
+            host.post(() -> {
+                building = false;
+                if (discarded) {
+                    release(pool, built);
+                    return;
+                }
+                System.arraycopy(built, 1, levels, 1, count - 1);
+                onBuilt.run();
+            });
+        });
+    }
+
+    /**
+     * Hands the levels back to the pool; the base belongs to the caller.
+     */
+    void discard(BitmapPool pool) {
+        discarded = true;
+        release(pool, levels);
+    }
+
+    private static void release(BitmapPool pool, Bitmap[] built) {
+        for (int i = 1; i < built.length; i++) {
+            pool.put(built[i]);
+            built[i] = null;
+        }
+    }
+
+    // Streams the source through in strips so the buffers stay small
+    private static void halve(Bitmap src, Bitmap dst) {
+        int srcWidth = src.getWidth();
+        int srcHeight = src.getHeight();
+        int dstWidth = dst.getWidth();
+        int dstHeight = dst.getHeight();
+        int[] rows = new int[srcWidth * STRIP_ROWS * 2];
+        int[] out = new int[dstWidth * STRIP_ROWS];
+
+        for (int y = 0; y < dstHeight; y += STRIP_ROWS) {
+            int stripRows = Math.min(STRIP_ROWS, dstHeight - y);
+            int srcTop = y * 2;
+            int srcRows = Math.min(stripRows * 2, srcHeight - srcTop);
+            src.getPixels(rows, 0, srcWidth, 0, srcTop, srcWidth, srcRows);
+            downsample2x(rows, srcWidth, srcRows, out, dstWidth, stripRows);
+            dst.setPixels(out, 0, dstWidth, 0, y, dstWidth, stripRows);
+        }
+    }
+
+    /**
+     * 2x2 box filter over packed ARGB rows; channels are averaged two at a time in
+     * 16-bit lanes.
+     */
+    static void downsample2x(int[] src, int srcWidth, int srcRows, int[] dst, int dstWidth, int dstRows) {
+        for (int y = 0; y < dstRows; y++) {
+            int row0 = Math.min(y * 2, srcRows - 1) * srcWidth;
+            int row1 = Math.min(y * 2 + 1, srcRows - 1) * srcWidth;
+            int out = y * dstWidth;
+            for (int x = 0; x < dstWidth; x++) {
+                int x0 = Math.min(x * 2, srcWidth - 1);
+                int x1 = Math.min(x * 2 + 1, srcWidth - 1);
+                int a = src[row0 + x0];
+                int b = src[row0 + x1];
+                int c = src[row1 + x0];
+                int d = src[row1 + x1];
+                int redBlue = (a & 0xFF00FF) + (b & 0xFF00FF) + (c & 0xFF00FF) + (d & 0xFF00FF) + 0x020002;
+                int alphaGreen = ((a >>> 8) & 0xFF00FF) + ((b >>> 8) & 0xFF00FF)
+                        + ((c >>> 8) & 0xFF00FF) + ((d >>> 8) & 0xFF00FF) + 0x020002;
+                dst[out + x] = (((alphaGreen >>> 2) & 0xFF00FF) << 8) | ((redBlue >>> 2) & 0xFF00FF);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.aastha.colorassistapp.ui.charts;
+
+/**
+ * PixelKernel is one complete per-pixel color transform over a run of packed ARGB
+ * pixels. SimulationEngine, SimulationCache and ColorblindnessSimulationView work
+ * in terms of kernels, so new models plug in without touching the render path.
+ *
+ * Kernels are used as cache keys: instances that produce the same output should be
+ * the same object or compare equal.
+ */
+public interface PixelKernel {
+
+    /**
+     * Transforms count pixels. src and dst may be the same array. Must not allocate
+     * and must be safe to call from several threads at once.
+     */
+    void transform(int[] src, int srcOffset, int[] dst, int dstOffset, int count);
+
+    /**
+     * The transform as an Android ColorMatrix array (4x5) if it is linear in
+     * gamma-encoded sRGB, so it can be drawn with a ColorMatrixColorFilter.
+     * Null otherwise.
+     */
+    default float[] getColorMatrix() {
+        return null;
+    }
+
+    /**
+     * True if the kernel leaves every pixel unchanged.
+     */
+    default boolean isIdentity() {
+        return false;
+    }
+}
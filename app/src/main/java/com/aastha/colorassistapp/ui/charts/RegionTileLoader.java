@@ -0,0 +1,199 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.util.LruCache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * RegionTileLoader streams an image that is too large to decode whole. Tiles of
+ * TILE_SIZE pixels are decoded through a BitmapRegionDecoder at the sample size the
+ * current zoom needs, run through the active kernel and kept in a byte-bounded LRU,
+ * so peak memory is set by the tile cache rather than by the source resolution.
+ *
+ * The decoder stays owned by the caller; decodes against a recycled decoder are
+ * simply dropped.
+ */
+final class RegionTileLoader {
+
+    static final int TILE_SIZE = TileGrid.TILE_SIZE;
+
+    // Only tiles requested in the latest frame are decoded; the queue is replaced each frame
+    private final LinkedHashSet<Long> wanted = new LinkedHashSet<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final BitmapRegionDecoder decoder;
+    private final int width;
+    private final int height;
+    private final LruCache<Long, Bitmap> tiles;
+    private final Runnable onTileReady;
+
+    // Guarded by this
+    private PixelKernel kernel = ColorTransformer.kernelFor(ColorTransformer.Mode.NONE);
+    private boolean bake;
+    private int kernelGeneration;
+    private boolean workerScheduled;
+    private boolean released;
+
+    // Only touched on the worker thread
+    private final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+    private final Rect region = new Rect();
+    private final BitmapFactory.Options options = new BitmapFactory.Options();
+
+    RegionTileLoader(BitmapRegionDecoder decoder, Runnable onTileReady) {
+        this.decoder = decoder;
+        this.width = decoder.getWidth();
+        this.height = decoder.getHeight();
+        this.onTileReady = onTileReady;
+        // An eighth of the heap covers a couple of screens of full-resolution tiles
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        this.tiles = new LruCache<Long, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+    }
+
+    BitmapRegionDecoder getDecoder() {
+        return decoder;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Largest power-of-two subsample that still gives at least one decoded pixel per
+     * screen pixel at this many screen pixels per source pixel.
+     */
+    static int sampleSizeFor(float scale) {
+        int sample = 1;
+        while (sample < 1 << 14 && scale * sample * 2 <= 1f) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Sets the transform tiles are shown with. Baked tiles have the kernel applied to
+     * their pixels and are dropped when it changes; unbaked tiles hold raw pixels and
+     * are drawn with a color filter, so they survive kernel changes.
+     */
+    synchronized void setKernel(PixelKernel kernel, boolean bake) {
+        if (this.bake == bake && (!bake || this.kernel.equals(kernel))) {
+            this.kernel = kernel;
+            return;
+        }
+        this.kernel = kernel;
+        this.bake = bake;
+        kernelGeneration++;
+        tiles.evictAll();
+    }
+
+    Bitmap get(int sample, int column, int row) {
+        return tiles.get(key(sample, column, row));
+    }
+
+    /**
+     * Starts a frame's worth of requests; tiles still queued from older frames are dropped.
+     */
+    synchronized void beginRequests() {
+        wanted.clear();
+    }
+
+    synchronized void request(int sample, int column, int row) {
+        wanted.add(key(sample, column, row));
+    }
+
+    synchronized void submitRequests() {
+        if (released || workerScheduled || wanted.isEmpty()) return;
+        workerScheduled = true;
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Drops all tiles and stops the worker. Does not recycle the decoder.
+     */
+    void release() {
+        synchronized (this) {
+            released = true;
+            wanted.clear();
+        }
+        executor.shutdown();
+        tiles.evictAll();
+    }
+
+    private void drain() {
+        while (true) {
+            long key;
+            PixelKernel tileKernel;
+            boolean tileBake;
+            int generation;
+            synchronized (this) {
+                Iterator<Long> next = wanted.iterator();
+                if (released || !next.hasNext()) {
+                    workerScheduled = false;
+                    return;
+                }
+                key = next.next();
+                next.remove();
+                tileKernel = kernel;
+                tileBake = bake;
+                generation = kernelGeneration;
+            }
+            if (tiles.get(key) != null) continue;
+
+            Bitmap tile = decode(key, tileBake ? tileKernel : null);
+            if (tile == null) continue;
+            synchronized (this) {
+                if (released || generation != kernelGeneration) continue;
+                tiles.put(key, tile);
+            }
+            onTileReady.run();
+        }
+    }
+
+    private Bitmap decode(long key, PixelKernel bakeKernel) {
+        int sample = 1 << (int) (key >>> 56);
+        int column = (int) (key >>> 28) & 0xFFFFFFF;
+        int row = (int) key & 0xFFFFFFF;
+        int span = TILE_SIZE * sample;
+        region.set(column * span, row * span,
+                Math.min((column + 1) * span, width), Math.min((row + 1) * span, height));
+        if (region.isEmpty()) return null;
+
+        options.inSampleSize = sample;
+        Bitmap tile;
+        try {
+            tile = decoder.decodeRegion(region, options);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // Decoder recycled by its owner, or the region fell outside the image
+            return null;
+        }
+        if (tile == null || bakeKernel == null || bakeKernel.isIdentity()) return tile;
+
+        int tileWidth = tile.getWidth();
+        int tileHeight = tile.getHeight();
+        tile.getPixels(pixels, 0, tileWidth, 0, 0, tileWidth, tileHeight);
+        bakeKernel.transform(pixels, 0, pixels, 0, tileWidth * tileHeight);
+        tile.setPixels(pixels, 0, tileWidth, 0, 0, tileWidth, tileHeight);
+        return tile;
+    }
+
+    // Sample level in the top byte, then column and row in 28 bits each
+    private static long key(int sample, int column, int row) {
+        return ((long) Integer.numberOfTrailingZeros(sample) << 56) | ((long) column << 28) | row;
+    }
+}
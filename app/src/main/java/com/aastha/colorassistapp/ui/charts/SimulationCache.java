@@ -0,0 +1,119 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.aastha.colorassistapp.BitmapPool;
+
+import java.util.Map;
+
+/**
+ * SimulationCache keeps recently rendered simulations keyed by source bitmap and kernel,
+ * so flipping back and forth between modes does not redo the full-image pass.
+ * Entries are weighed by their real pixel allocation and the cache gives memory
+ * back when the system asks via onTrimMemory. Evicted simulations go back to the
+ * BitmapPool, so bitmaps handed out by get() must not be kept past the next render.
+ */
+public final class SimulationCache implements ComponentCallbacks2 {
+
+    private static SimulationCache instance;
+
+    private final LruCache<Key, Bitmap> cache;
+
+    private SimulationCache(int maxBytes, BitmapPool pool) {
+        cache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue) {
+                    pool.put(oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * Process-wide cache, registered for trim callbacks on first use.
+     */
+    public static synchronized SimulationCache getInstance(Context context) {
+        if (instance == null) {
+            // A quarter of the heap holds all three simulations of a 2048px chart on most devices
+            instance = new SimulationCache((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 4),
+                    BitmapPool.getInstance(context));
+            context.getApplicationContext().registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    public Bitmap get(Bitmap source, PixelKernel kernel) {
+        return cache.get(new Key(source, kernel));
+    }
+
+    public void put(Bitmap source, PixelKernel kernel, Bitmap simulated) {
+        cache.put(new Key(source, kernel), simulated);
+    }
+
+    /**
+     * Drops every simulation of a source, e.g. once a new chart replaces it.
+     */
+    public void evictSource(Bitmap source) {
+        for (Map.Entry<Key, Bitmap> entry : cache.snapshot().entrySet()) {
+            if (entry.getKey().source == source) {
+                cache.remove(entry.getKey());
+            }
+        }
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            cache.evictAll();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        cache.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+
+    // Sources are compared by identity; the same pixels in a new Bitmap are a new source
+    private static final class Key {
+        final Bitmap source;
+        final PixelKernel kernel;
+
+        Key(Bitmap source, PixelKernel kernel) {
+            this.source = source;
+            this.kernel = kernel;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return source == other.source && kernel.equals(other.kernel);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(source) + kernel.hashCode();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * SimulationEngine runs a colorblindness simulation (any PixelKernel) over a whole image on all cores.
+ * The image is split into row bands on a ForkJoinPool; each band reads its rows
+ * straight into the caller's destination buffer and is transformed in place, so
+ * the only full-size allocation is the reusable destination the caller owns.
+ */
+public final class SimulationEngine {
+
+    /**
+     * Supplies source rows to the engine. Must be safe to call from several
+     * threads at once for disjoint row ranges.
+     */
+    public interface RowSource {
+        void readRows(int[] dst, int offset, int y, int rows);
+    }
+
+    // Below this many rows a band is not worth splitting further
+    private static final int MIN_BAND_ROWS = 16;
+
+    private static SimulationEngine defaultEngine;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+
+    public SimulationEngine(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    /**
+     * Shared engine sized to the device's core count.
+     */
+    public static synchronized SimulationEngine getDefault() {
+        if (defaultEngine == null) {
+            defaultEngine = new SimulationEngine(Runtime.getRuntime().availableProcessors());
+        }
+        return defaultEngine;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Transforms a width x height image into dst (row stride = width) with kernel.
+     * Blocks until done; bands not yet started are skipped once cancelled returns true.
+     * Returns false if the run was cancelled, in which case dst is only partly written.
+     */
+    public boolean transform(RowSource source, int[] dst, int width, int height,
+                             PixelKernel kernel, BooleanSupplier cancelled) {
+        if (dst.length < width * height) {
+            throw new IllegalArgumentException("Destination buffer too small for " + width + "x" + height);
+        }
+        if (height == 0 || width == 0) return !cancelled.getAsBoolean();
+
+        // Aim for a few bands per worker so uneven cores still balance out
+        int bandRows = Math.max(MIN_BAND_ROWS, height / (parallelism * 4));
+        pool.invoke(new BandTask(source, dst, width, 0, height, bandRows, kernel, cancelled));
+        return !cancelled.getAsBoolean();
+    }
+
+    private static final class BandTask extends RecursiveAction {
+        private final RowSource source;
+        private final int[] dst;
+        private final int width;
+        private final int startRow;
+        private final int endRow;
+        private final int bandRows;
+        private final PixelKernel kernel;
+        private final BooleanSupplier cancelled;
+
+        BandTask(RowSource source, int[] dst, int width, int startRow, int endRow,
+                 int bandRows, PixelKernel kernel, BooleanSupplier cancelled) {
+            this.source = source;
+            this.dst = dst;
+            this.width = width;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.bandRows = bandRows;
+            this.kernel = kernel;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) return;
+
+            int rows = endRow - startRow;
+            if (rows <= bandRows) {
+                int offset = startRow * width;
+                source.readRows(dst, offset, startRow, rows);
+                kernel.transform(dst, offset, dst, offset, rows * width);
+                return;
+            }
+
+            int mid = startRow + rows / 2;
+            invokeAll(new BandTask(source, dst, width, startRow, mid, bandRows, kernel, cancelled),
+                    new BandTask(source, dst, width, mid, endRow, bandRows, kernel, cancelled));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import android.graphics.Rect;
+
+import java.util.Arrays;
+
+/**
+ * TileGrid splits an image into fixed-size square tiles and orders them so the
+ * ones the user is looking at are rendered first.
+ */
+final class TileGrid {
+
+    static final int TILE_SIZE = 256;
+
+    final int width;
+    final int height;
+    final int columns;
+    final int rows;
+
+    TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    int count() {
+        return columns * rows;
+    }
+
+    int left(int index) {
+        return (index % columns) * TILE_SIZE;
+    }
+
+    int top(int index) {
+        return (index / columns) * TILE_SIZE;
+    }
+
+    int tileWidth(int index) {
+        return Math.min(TILE_SIZE, width - left(index));
+    }
+
+    int tileHeight(int index) {
+        return Math.min(TILE_SIZE, height - top(index));
+    }
+
+    void getBounds(int index, Rect out) {
+        int left = left(index);
+        int top = top(index);
+        out.set(left, top, left + tileWidth(index), top + tileHeight(index));
+    }
+
+    /**
+     * Tile indices with those intersecting the visible rect first, each group
+     * ordered by distance from the centre of the visible rect.
+     */
+    int[] priorityOrder(Rect visible) {
+        int count = count();
+        long[] keyed = new long[count];
+        int centerX = visible.centerX();
+        int centerY = visible.centerY();
+
+        for (int i = 0; i < count; i++) {
+            int left = left(i);
+            int top = top(i);
+            boolean onScreen = left < visible.right && left + tileWidth(i) > visible.left
+                    && top < visible.bottom && top + tileHeight(i) > visible.top;
+
+            long dx = left + tileWidth(i) / 2 - centerX;
+            long dy = top + tileHeight(i) / 2 - centerY;
+            long distance = dx * dx + dy * dy;
+
+            // Sort key: off-screen flag, then distance, with the index in the low bits
+            keyed[i] = ((onScreen ? 0L : 1L) << 62) | (distance << 20) | i;
+        }
+        Arrays.sort(keyed);
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) (keyed[i] & 0xFFFFF);
+        }
+        return order;
+    }
+}
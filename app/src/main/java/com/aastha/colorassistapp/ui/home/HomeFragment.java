@@ -1,6 +1,7 @@
 package com.aastha.colorassistapp.ui.home;
 
 import android.Manifest;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.net.Uri;
@@ -8,16 +9,18 @@ import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
-import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageView;
+import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.widget.FrameLayout;
 import android.content.Intent;
 
+import java.util.Arrays;
+
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.PickVisualMediaRequest;
 import androidx.activity.result.contract.ActivityResultContracts;
@@ -25,11 +28,13 @@ import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
+import com.aastha.colorassistapp.ColorNameTree;
+import com.aastha.colorassistapp.ColorSampler;
+import com.aastha.colorassistapp.ImageLoader;
 import com.aastha.colorassistapp.R;
+import com.aastha.colorassistapp.ScrubTouchListener;
 import com.aastha.colorassistapp.PixelIndicatorView;
 
-import java.io.IOException;
-
 public class HomeFragment extends Fragment {
 
     private View rootView;
@@ -37,9 +42,22 @@ public class HomeFragment extends Fragment {
     private PixelIndicatorView pixelIndicator;
     private TextView infoText;
     private Bitmap currentBitmap;
-    private String lastHexColor;
+    private int selectedColor;
     private TextView headingHomeTxt;
     private ActivityResultLauncher<PickVisualMediaRequest> pickMedia;
+    private ImageLoader.Request loadRequest;
+    private ColorSampler sampler;
+    private ScrubTouchListener scrubListener;
+    private Button colorHexaBtn;
+    private boolean hasSelection;
+    private int selectedTapX, selectedTapY, selectedBitmapX, selectedBitmapY;
+    // Null until the dictionary has loaded
+    private ColorNameTree colorNames;
+    private ImageLoader.Request namesRequest;
+    // Info text with the hex and color name written in place while scrubbing
+    private static final String INFO_PREFIX = "Selected Color: ";
+    private static final int INFO_HEX_OFFSET = INFO_PREFIX.length();
+    private final char[] infoChars = Arrays.copyOf(INFO_PREFIX.toCharArray(), 80);
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -69,23 +87,66 @@ public class HomeFragment extends Fragment {
         infoText = view.findViewById(R.id.info_text);
         headingHomeTxt = view.findViewById(R.id.headingHomeTxt);
         Button pickImageBtn = view.findViewById(R.id.btn_pick_image);
-        Button colorHexaBtn = view.findViewById(R.id.btn_colorhexa);
+        colorHexaBtn = view.findViewById(R.id.btn_colorhexa);
+        sampler = new ColorSampler(ImageLoader.getInstance(requireContext()));
+        loadColorNames();
         // Pick image button click listener
         pickImageBtn.setOnClickListener(v -> launchPhotoPicker());
         colorHexaBtn.setOnClickListener(v -> openColorHexa());
-        // Image tap listener
-        imageView.setOnTouchListener((v, event) -> {
-            if (event.getAction() == MotionEvent.ACTION_DOWN && currentBitmap != null) {
-                handleImageTap(event);
+        setupRadiusSeekBar(view);
+        // Image tap listener: samples follow the finger, once per display frame
+        scrubListener = new ScrubTouchListener((x, y) -> {
+            if (currentBitmap != null) handleImageTap(x, y);
+        });
+        imageView.setOnTouchListener(scrubListener);
+    }
+
+    private void loadColorNames() {
+        Context appContext = requireContext().getApplicationContext();
+        namesRequest = ImageLoader.getInstance(appContext).submit(() -> ColorNameTree.getInstance(appContext),
+                new ImageLoader.Callback<ColorNameTree>() {
+                    @Override
+                    public void onLoaded(ColorNameTree tree) {
+                        colorNames = tree;
+                        if (hasSelection) showSelection();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Selections keep showing the hex only
+                        Log.e("HomeFragment", "Could not load color names", e);
+                    }
+                });
+    }
+
+    private void setupRadiusSeekBar(View view) {
+        TextView radiusText = view.findViewById(R.id.radius_text);
+        SeekBar radiusSeekBar = view.findViewById(R.id.seekbar_radius);
+        radiusSeekBar.setMax(ColorSampler.MAX_RADIUS);
+        radiusSeekBar.setProgress(sampler.getRadius());
+        radiusText.setText("Sampling radius: " + sampler.getRadius() + " px");
+        radiusSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                sampler.setRadius(progress);
+                radiusText.setText("Sampling radius: " + progress + " px");
+                // Re-sample the current pick so the effect of the radius is visible right away
+                if (hasSelection) showSelection();
             }
-            return true;
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
         });
     }
+
     private void openColorHexa() {
         if (currentBitmap == null) return;
 
         // Get last selected color's hex (remove # for URL)
-        String colorHex = lastHexColor != null ? lastHexColor.replace("#", "") : "000000";
+        String colorHex = hasSelection ? ColorSampler.toHex(selectedColor).substring(1) : "000000";
 
         String url = "https://www.colorhexa.com/" + colorHex;
 
@@ -122,126 +183,92 @@ public class HomeFragment extends Fragment {
     }
 
     private void loadImageFromUri(Uri uri) {
-        try {
-            currentBitmap = android.provider.MediaStore.Images.Media.getBitmap(
-                    requireContext().getContentResolver(), uri);
-
-            imageView.setImageBitmap(currentBitmap);
-
-            // NEW: Dynamic container height to fit image perfectly
-            FrameLayout container = rootView.findViewById(R.id.image_container);
-            float aspectRatio = (float) currentBitmap.getHeight() / currentBitmap.getWidth();
-            int targetHeight = Math.min(600, (int) (imageView.getWidth() * aspectRatio)); // Max 600dp
-            container.getLayoutParams().height = targetHeight;
-
-            pixelIndicator.clearIndicator();
-            infoText.setText("Tap on the image to pick colors");
-            Button colorHexaBtn = rootView.findViewById(R.id.btn_colorhexa);
-            colorHexaBtn.setVisibility(View.GONE);
-        } catch (IOException e) {
-            Log.e("HomeFragment", "Error loading image", e);
-            Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
-        }
-    }
+        if (loadRequest != null) loadRequest.cancel();
+        // Only the width is fixed; the container grows to the image's aspect ratio
+        loadRequest = ImageLoader.getInstance(requireContext()).load(uri, imageView.getWidth(), 0,
+                new ImageLoader.Callback<Bitmap>() {
+                    @Override
+                    public void onLoaded(Bitmap bitmap) {
+                        showImage(bitmap);
+                    }
 
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("HomeFragment", "Error loading image", e);
+                        Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
+    private void showImage(Bitmap bitmap) {
+        currentBitmap = bitmap;
+        hasSelection = false;
+        sampler.setBitmap(bitmap);
 
+        imageView.setImageBitmap(currentBitmap);
 
-    private void handleImageTap(MotionEvent event) {
-        if (currentBitmap == null) return;
+        // NEW: Dynamic container height to fit image perfectly
+        FrameLayout container = rootView.findViewById(R.id.image_container);
+        float aspectRatio = (float) currentBitmap.getHeight() / currentBitmap.getWidth();
+        int targetHeight = Math.min(600, (int) (imageView.getWidth() * aspectRatio)); // Max 600dp
+        container.getLayoutParams().height = targetHeight;
 
-        float tapX = event.getX();
-        float tapY = event.getY();
-
-        int imageViewWidth = imageView.getWidth();
-        int imageViewHeight = imageView.getHeight();
-        int bitmapWidth = currentBitmap.getWidth();
-        int bitmapHeight = currentBitmap.getHeight();
-
-        // Calculate ACTUAL displayed bitmap size (accounts for letterbox)
-        float scale = Math.min((float) imageViewWidth / bitmapWidth, (float) imageViewHeight / bitmapHeight);
-        int displayWidth = (int) (bitmapWidth * scale);
-        int displayHeight = (int) (bitmapHeight * scale);
-
-        // Calculate letterbox padding
-        float paddingX = (imageViewWidth - displayWidth) / 2f;
-        float paddingY = (imageViewHeight - displayHeight) / 2f;
-
-        // Adjust tap coordinates for padding
-        float adjustedX = tapX - paddingX;
-        float adjustedY = tapY - paddingY;
-
-        // Scale to bitmap coordinates
-        float scaleX = (float) bitmapWidth / displayWidth;
-        float scaleY = (float) bitmapHeight / displayHeight;
-
-        int bitmapX = Math.round(adjustedX * scaleX);
-        int bitmapY = Math.round(adjustedY * scaleY);
-
-        // Clamp to bitmap bounds
-        bitmapX = Math.max(0, Math.min(bitmapX, bitmapWidth - 1));
-        bitmapY = Math.max(0, Math.min(bitmapY, bitmapHeight - 1));
-
-        // Only process valid taps
-        if (tapX >= paddingX && tapX <= (imageViewWidth - paddingX) &&
-                tapY >= paddingY && tapY <= (imageViewHeight - paddingY)) {
-
-            int averageColor = getAverageColorInRadius(bitmapX, bitmapY, 3);
-            String hexColor = colorToHex(averageColor);
-            lastHexColor = hexColor;
-            // Pass RAW ImageView coordinates to overlay (perfect position)
-            pixelIndicator.updateIndicator((int) tapX, (int) tapY, averageColor, hexColor);
-            infoText.setText("Selected Color: " + hexColor);
-            Button colorHexaBtn = rootView.findViewById(R.id.btn_colorhexa);
-            colorHexaBtn.setVisibility(View.VISIBLE);
-            Log.d("HomeFragment", "Tap: (" + tapX + ", " + tapY + ") -> Bitmap: (" + bitmapX + ", " + bitmapY + ") = " + hexColor);
-        }
+        pixelIndicator.setSource(bitmap);
+        pixelIndicator.clearIndicator();
+        infoText.setText("Tap on the image to pick colors");
+        colorHexaBtn.setVisibility(View.GONE);
     }
 
-
-
-    private int getAverageColorInRadius(int centerX, int centerY, int radius) {
-        int totalRed = 0;
-        int totalGreen = 0;
-        int totalBlue = 0;
-        int pixelCount = 0;
-
-        // Sample pixels within radius
-        for (int x = centerX - radius; x <= centerX + radius; x++) {
-            for (int y = centerY - radius; y <= centerY + radius; y++) {
-                // Check if pixel is within bitmap bounds and within circular radius
-                if (x >= 0 && x < currentBitmap.getWidth() && y >= 0 && y < currentBitmap.getHeight()) {
-                    int dx = x - centerX;
-                    int dy = y - centerY;
-                    
-                    if (dx * dx + dy * dy <= radius * radius) {
-                        int pixel = currentBitmap.getPixel(x, y);
-                        
-                        totalRed += android.graphics.Color.red(pixel);
-                        totalGreen += android.graphics.Color.green(pixel);
-                        totalBlue += android.graphics.Color.blue(pixel);
-                        pixelCount++;
-                    }
-                }
-            }
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (loadRequest != null) {
+            loadRequest.cancel();
+            loadRequest = null;
         }
-
-        if (pixelCount == 0) {
-            return android.graphics.Color.BLACK;
+        if (namesRequest != null) {
+            namesRequest.cancel();
+            namesRequest = null;
         }
+        sampler.release();
+        if (scrubListener != null) {
+            scrubListener.cancel();
+        }
+    }
 
-        int avgRed = totalRed / pixelCount;
-        int avgGreen = totalGreen / pixelCount;
-        int avgBlue = totalBlue / pixelCount;
-
-        return android.graphics.Color.rgb(avgRed, avgGreen, avgBlue);
+    private void handleImageTap(float tapX, float tapY) {
+        long pixel = sampler.map(tapX, tapY, imageView.getWidth(), imageView.getHeight());
+        // Only process taps on the image itself, not the letterbox around it
+        if (pixel == ColorSampler.OUTSIDE) return;
+
+        selectedTapX = (int) tapX;
+        selectedTapY = (int) tapY;
+        selectedBitmapX = ColorSampler.mappedX(pixel);
+        selectedBitmapY = ColorSampler.mappedY(pixel);
+        hasSelection = true;
+        showSelection();
     }
 
-    private String colorToHex(int color) {
-        int red = android.graphics.Color.red(color);
-        int green = android.graphics.Color.green(color);
-        int blue = android.graphics.Color.blue(color);
-        
-        return String.format("#%02X%02X%02X", red, green, blue);
+    private void showSelection() {
+        selectedColor = sampler.sample(selectedBitmapX, selectedBitmapY);
+        char[] hex = sampler.formatHex(selectedColor);
+        // Pass RAW ImageView coordinates to overlay (perfect position)
+        pixelIndicator.updateIndicator(selectedTapX, selectedTapY, selectedBitmapX, selectedBitmapY,
+                sampler.getRadius(), selectedColor, hex);
+        System.arraycopy(hex, 0, infoChars, INFO_HEX_OFFSET, ColorSampler.HEX_LENGTH);
+        int length = INFO_HEX_OFFSET + ColorSampler.HEX_LENGTH;
+        int match = colorNames != null ? colorNames.nearest(selectedColor) : -1;
+        if (match >= 0) {
+            // Perceptually nearest named color, e.g. "#BCB88A (Sage)"
+            String name = colorNames.getName(match);
+            int nameLength = Math.min(name.length(), infoChars.length - length - 3);
+            infoChars[length++] = ' ';
+            infoChars[length++] = '(';
+            name.getChars(0, nameLength, infoChars, length);
+            length += nameLength;
+            infoChars[length++] = ')';
+        }
+        infoText.setText(infoChars, 0, length);
+        colorHexaBtn.setVisibility(View.VISIBLE);
     }
 }
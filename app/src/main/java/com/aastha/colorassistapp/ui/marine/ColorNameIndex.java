@@ -0,0 +1,332 @@
+package com.aastha.colorassistapp.ui.marine;
+
+import java.util.Arrays;
+
+/**
+ * ColorNameIndex names colors against the Marine tab's palette in constant time, so that
+ * naming every pixel of an image is affordable. Colors are keyed by their top 5 bits per
+ * channel into a 32K-entry table of name indices. A cell holds a name only when interval
+ * bounds over its 512 colors prove that every one of them gets that name. Cells crossed
+ * by a decision boundary keep the few palette entries that can win inside them and scan
+ * only those, exactly. Either way the result is the one the weighted HSV nearest-
+ * neighbour search over the whole palette gives.
+ */
+public final class ColorNameIndex {
+
+    private static final String[] NAMES = {
+        "Red","Dark Red","Tomato","Crimson","Orange Red","Coral","Maroon", "Orange","Carrot Orange","Gold",
+        "Goldenrod","Yellow","Bright Yellow", "Lemon Yellow","Golden Yellow","Light Yellow","Pastel Yellow","Yellow Orange", "Green Yellow","Yellow Green",
+        "Inchworm","Chartreuse","Lime Green", "Pure Green","Green","Medium Green","Light Green","Pale Green","Emerald", "Fern Green",
+        "Moss Green","Dark Moss Green","Olive","Olivine","Light Olive Green", "Cyan","Teal","Teal Blue","Blue Green","Aquamarine",
+        "Turquoise", "Light Blue","Sky Blue","Blue","Royal Blue","Dark Blue","Indigo Blue","Indigo", "Violet","Blue Violet",
+        "Dark Magenta","Purple","Medium Purple","Deep Purple", "Magenta","Deep Pink","Pink","Pale Pink","Very Pale Pink","Rose",
+        "White","Brown","Light Cyan", "Pale Lavender Blue", "Light Violet", "Soft Pinkish Purple", "Medium Magenta", "Deep Fuchsia Pink", "Bright Reddish Pink", "Reddish Magenta",
+        "Dark Pinkish Red", "Deep Crimson Red", "Bright Lemon Yellow", "Light Golden Yellow", "Sunflower Yellow", "Amber", "Tangerine", "Scarlet Red", "Dark Crimson", "Lime",
+        "Spring Green", "Kelly Green", "Deep Aqua","Very Dark Cyan",
+        // Neutral shades named by the gray branch
+        "Light Gray", "Gray", "Dark Gray", "Black"
+    };
+
+    // Palette hue (degrees), saturation and value, parallel to NAMES
+    private static final float[] H = {
+        0,0,9,348,16,16,0,30,28,51,
+        43,60,60,58,52,60,60,45,75,85,
+        90,90,120,120,120,120,120,120,140,110,
+        95,95,60,80,75,180,180,190,170,160,
+        174,200,195,240,225,240,260,275,275f,275,
+        300f,285,290,285,300,330,350,350,350,345,
+        0,30,180f,220f,270f,295f,300f, 315f,345f, 330f,
+        350f,355f,58f,50f,54f,45f,25f,8f,350f,85f,
+        100f, 120f, 180f, 145.3f
+    };
+
+    private static final float[] S = {
+        1, 1, 0.72f, 0.83f, 1, 0.68f, 1, 1, 0.85f, 1,
+        0.74f, 1, 1, 0.9f, 0.95f, 0.25f, 0.3f, 1, 1, 1,
+        0.75f, 1, 1, 1, 0.8f, 0.7f, 0.4f, 0.3f, 0.8f, 0.6f,
+        0.6f, 0.7f, 0.8f, 0.55f, 0.4f, 1, 0.8f, 0.8f, 0.7f, 0.5f,
+        0.72f, 0.4f, 0.40f, 1, 0.73f, 1, 0.8f, 0.75f, 0.55f, 0.76f,
+        0.75f, 0.8f, 0.5f, 0.65f, 1, 0.9f, 0.4f, 0.25f, 0.15f, 0.6f,
+        0,0.8f, 0.25f, 0.35f, 0.45f, 0.45f, 0.65f, 0.85f, 0.85f, 0.8f,
+        0.75f, 0.9f, 1f, 0.6f, 0.9f, 0.95f, 0.9f, 1f, 0.85f, 0.80f,
+        0.75f, 0.80f, 1.0f, 1.0f
+    };
+
+    private static final float[] V = {
+        1, 0.55f, 1, 0.86f, 1, 1, 0.4f, 1, 0.9f, 1,
+        0.85f, 1, 1, 1, 0.95f, 1, 0.97f, 1, 1, 1,
+        0.9f, 1, 1, 1, 0.8f, 0.7f, 1, 0.9f, 0.8f, 0.5f,
+        0.5f, 0.35f, 0.5f, 0.7f, 0.8f, 1, 0.6f, 0.7f, 0.7f, 1,
+        0.88f, 1, 1.00f, 1, 0.88f, 0.5f, 0.5f, 0.5f, 0.80f, 0.85f,
+        0.55f, 0.7f, 0.85f, 0.60f, 1, 1, 1, 1, 1, 0.8f,
+        1, 0.4f, 1f, 0.95f, 0.9f, 0.85f, 0.8f, 0.8f, 1f, 0.9f,
+        0.75f, 0.5f, 1f, 0.95f, 0.95f, 0.95f, 1f, 1f, 0.4f, 0.90f,
+        0.85f, 0.80f, 0.545f, 0.251f
+    };
+
+    private static final int PALETTE_SIZE = H.length;
+    private static final int WHITE = 60;
+    private static final int LIGHT_GRAY = PALETTE_SIZE;
+    private static final int GRAY = PALETTE_SIZE + 1;
+    private static final int DARK_GRAY = PALETTE_SIZE + 2;
+    private static final int BLACK = PALETTE_SIZE + 3;
+
+    // Colors below this saturation are named by value alone
+    private static final float GRAY_SATURATION = 0.10f;
+    private static final float HUE_WEIGHT = 2.5f;
+
+    private static final int CELL_BITS = 5;
+    private static final int CELL_SIZE = 1 << (8 - CELL_BITS);
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    private static final int CELLS = 1 << (3 * CELL_BITS);
+    // Table entry for cells that need the exact scan
+    private static final int REFINE = 0xFF;
+    // Slack for float rounding in the exact scan, far above its actual error
+    private static final double EPS = 1e-5;
+    private static final double HUE_EPS = 1e-2;
+
+    private static ColorNameIndex instance;
+
+    // Name index per cell, or REFINE
+    private final byte[] table = new byte[CELLS];
+    // Palette entries that can win somewhere in a REFINE cell, in palette order, at
+    // candidates[candidateStart[cell]] up to candidates[candidateStart[cell + 1]]
+    private final int[] candidateStart = new int[CELLS + 1];
+    private byte[] candidates = new byte[CELLS];
+    private int candidateCount;
+
+    private ColorNameIndex() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            candidateStart[cell] = candidateCount;
+            table[cell] = (byte) classifyCell(cell);
+        }
+        candidateStart[CELLS] = candidateCount;
+        candidates = Arrays.copyOf(candidates, candidateCount);
+    }
+
+    /**
+     * Builds the index on first use, which takes a few hundred milliseconds on a phone,
+     * so warm it off the main thread before the first color is named.
+     */
+    public static synchronized ColorNameIndex getInstance() {
+        if (instance == null) {
+            instance = new ColorNameIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Index of color's name, for callers that name many pixels; see nameAt.
+     */
+    public int indexOf(int color) {
+        int r = (color >> 16) & 0xFF;
+        int g = (color >> 8) & 0xFF;
+        int b = color & 0xFF;
+        int shift = 8 - CELL_BITS;
+        int cell = (r >> shift) << (2 * CELL_BITS) | (g >> shift) << CELL_BITS | (b >> shift);
+        int entry = table[cell] & 0xFF;
+        return entry != REFINE ? entry : refine(r, g, b, candidateStart[cell], candidateStart[cell + 1]);
+    }
+
+    public String nameOf(int color) {
+        return NAMES[indexOf(color)];
+    }
+
+    public static String nameAt(int index) {
+        return NAMES[index];
+    }
+
+    public static int nameCount() {
+        return NAMES.length;
+    }
+
+    // The palette scan over the cell's candidates, on the same float HSV as
+    // android.graphics.Color.colorToHSV so every result matches the full scan
+    private int refine(int r, int g, int b, int from, int to) {
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int delta = max - min;
+        float value = max / 255f;
+        float saturation = delta == 0 ? 0f : (float) delta / max;
+        if (saturation < GRAY_SATURATION) return grayIndex(value);
+
+        float hue;
+        if (r == max) {
+            hue = (float) (g - b) / delta;
+        } else if (g == max) {
+            hue = 2f + (float) (b - r) / delta;
+        } else {
+            hue = 4f + (float) (r - g) / delta;
+        }
+        hue *= 60;
+        if (hue < 0) hue += 360f;
+
+        float best = Float.MAX_VALUE;
+        int bestIndex = 0;
+        for (int k = from; k < to; k++) {
+            int i = candidates[k];
+            float dh = Math.abs(hue - H[i]);
+            if (dh > 180f) dh = 360f - dh;
+            dh /= 180f;
+            float ds = saturation - S[i];
+            float dv = value - V[i];
+            float d = dh * dh * HUE_WEIGHT + ds * ds + dv * dv;
+            if (d < best) {
+                best = d;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+
+    private static int grayIndex(double value) {
+        if (value > 0.92f) return WHITE;
+        else if (value > 0.70f) return LIGHT_GRAY;
+        else if (value > 0.40f) return GRAY;
+        else if (value > 0.15f) return DARK_GRAY;
+        else return BLACK;
+    }
+
+    // Name shared by every color of the cell, or REFINE after listing its candidates
+    private int classifyCell(int cell) {
+        int r0 = (cell >> (2 * CELL_BITS)) * CELL_SIZE;
+        int g0 = ((cell >> CELL_BITS) & CELL_MASK) * CELL_SIZE;
+        int b0 = (cell & CELL_MASK) * CELL_SIZE;
+        int r1 = r0 + CELL_SIZE - 1;
+        int g1 = g0 + CELL_SIZE - 1;
+        int b1 = b0 + CELL_SIZE - 1;
+        int maxLow = Math.max(r0, Math.max(g0, b0));
+        int maxHigh = Math.max(r1, Math.max(g1, b1));
+        int minLow = Math.min(r0, Math.min(g0, b0));
+        int minHigh = Math.min(r1, Math.min(g1, b1));
+
+        // Value is max / 255 and saturation 1 - min / max
+        double valueLow = maxLow / 255.0 - EPS;
+        double valueHigh = maxHigh / 255.0 + EPS;
+        double saturationLow = maxLow == 0 ? 0 : Math.max(0, 1 - (double) minHigh / maxLow) - EPS;
+        double saturationHigh = maxHigh == 0 ? 0 : 1 - (double) minLow / maxHigh + EPS;
+
+        if (saturationHigh < GRAY_SATURATION) {
+            int low = grayIndex(valueLow);
+            if (low == grayIndex(valueHigh)) return low;
+            // Only the gray branch is reached, which needs no candidates
+            return REFINE;
+        }
+        // Colors left to the palette scan are at least this saturated
+        boolean partlyGray = saturationLow < GRAY_SATURATION;
+        if (partlyGray) saturationLow = GRAY_SATURATION - EPS;
+
+        // Hue is constant along rays from the gray axis, so unless the cell reaches the
+        // axis its hues span the arc between its corners' hues, which is under 180 degrees
+        double hueStart = 0;
+        double hueLength = 360;
+        if (maxLow > minHigh) {
+            hueStart = hue(r0, g0, b0);
+            double low = 0;
+            double high = 0;
+            for (int corner = 1; corner < 8; corner++) {
+                double h = hue((corner & 4) != 0 ? r1 : r0, (corner & 2) != 0 ? g1 : g0, (corner & 1) != 0 ? b1 : b0);
+                double offset = wrap(h - hueStart + 180) - 180;
+                low = Math.min(low, offset);
+                high = Math.max(high, offset);
+            }
+            hueStart = wrap(hueStart + low - HUE_EPS);
+            hueLength = high - low + 2 * HUE_EPS;
+        }
+
+        // Entries the nearest one at the cell's center beats everywhere can never win here
+        int rc = r0 + CELL_SIZE / 2;
+        int gc = g0 + CELL_SIZE / 2;
+        int bc = b0 + CELL_SIZE / 2;
+        int maxCenter = Math.max(rc, Math.max(gc, bc));
+        double centerHue = maxCenter > Math.min(rc, Math.min(gc, bc)) ? hue(rc, gc, bc) : hueStart;
+        double centerSaturation = Math.min(saturationHigh, Math.max(saturationLow,
+                1 - (double) Math.min(rc, Math.min(gc, bc)) / maxCenter));
+        double centerValue = maxCenter / 255.0;
+        int leader = 0;
+        double leaderDistance = Double.MAX_VALUE;
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            double dh = circularDistance(centerHue, H[i]) / 180;
+            double ds = centerSaturation - S[i];
+            double dv = centerValue - V[i];
+            double d = dh * dh * HUE_WEIGHT + ds * ds + dv * dv;
+            if (d < leaderDistance) {
+                leaderDistance = d;
+                leader = i;
+            }
+        }
+
+        int start = candidateCount;
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            if (i != leader) {
+                double lead = HUE_WEIGHT * maxHueLead(leader, i, hueStart, hueLength)
+                        + maxLead(S[leader], S[i], saturationLow, saturationHigh)
+                        + maxLead(V[leader], V[i], valueLow, valueHigh);
+                if (lead < -EPS) continue;
+            }
+            if (candidateCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, candidateCount * 2);
+            }
+            candidates[candidateCount++] = (byte) i;
+        }
+        if (candidateCount - start == 1 && !partlyGray) {
+            candidateCount = start;
+            return leader;
+        }
+        return REFINE;
+    }
+
+    // Largest (x - a)^2 - (x - b)^2 over [low, high]; it is linear in x
+    private static double maxLead(double a, double b, double low, double high) {
+        return Math.max((low - a) * (low - a) - (low - b) * (low - b),
+                (high - a) * (high - a) - (high - b) * (high - b));
+    }
+
+    // Largest difference of the squared, normalized hue terms of palette entries a and b
+    // over the arc. Between the entries' hues and their opposites both distances are
+    // linear in h, so the difference is too and the maximum sits on one of those points
+    // or on an end of the arc.
+    private static double maxHueLead(int a, int b, double start, double length) {
+        boolean full = length >= 360;
+        double lead = full ? -Double.MAX_VALUE
+                : Math.max(hueLead(a, b, start), hueLead(a, b, start + length));
+        if (full || wrap(H[a] - start) <= length) lead = Math.max(lead, hueLead(a, b, H[a]));
+        if (full || wrap(H[a] + 180 - start) <= length) lead = Math.max(lead, hueLead(a, b, H[a] + 180));
+        if (full || wrap(H[b] - start) <= length) lead = Math.max(lead, hueLead(a, b, H[b]));
+        if (full || wrap(H[b] + 180 - start) <= length) lead = Math.max(lead, hueLead(a, b, H[b] + 180));
+        return lead;
+    }
+
+    private static double hueLead(int a, int b, double h) {
+        double da = circularDistance(h, H[a]) / 180;
+        double db = circularDistance(h, H[b]) / 180;
+        return da * da - db * db;
+    }
+
+    // Hue of an integer color in degrees, as in refine() but in double
+    private static double hue(int r, int g, int b) {
+        int max = Math.max(r, Math.max(g, b));
+        int delta = max - Math.min(r, Math.min(g, b));
+        double h;
+        if (r == max) {
+            h = (double) (g - b) / delta;
+        } else if (g == max) {
+            h = 2 + (double) (b - r) / delta;
+        } else {
+            h = 4 + (double) (r - g) / delta;
+        }
+        return wrap(h * 60);
+    }
+
+    // Into [0, 360); arguments are within a turn or two, where this beats %
+    private static double wrap(double degrees) {
+        while (degrees >= 360) degrees -= 360;
+        while (degrees < 0) degrees += 360;
+        return degrees;
+    }
+
+    private static double circularDistance(double a, double b) {
+        double d = wrap(a - b);
+        return Math.min(d, 360 - d);
+    }
+}
@@ -1,6 +1,7 @@
 package com.aastha.colorassistapp.ui.marine;
 
 import android.Manifest;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.net.Uri;
@@ -8,13 +9,13 @@ import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
-import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.ImageView;
+import android.widget.SeekBar;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -30,9 +31,11 @@ import androidx.fragment.app.Fragment;
 
 
 
+import com.aastha.colorassistapp.ColorNameTree;
+import com.aastha.colorassistapp.ColorSampler;
+import com.aastha.colorassistapp.ImageLoader;
 import com.aastha.colorassistapp.R;
-
-import java.io.IOException;
+import com.aastha.colorassistapp.ScrubTouchListener;
 
 public class MarineFragment extends Fragment {
 
@@ -47,6 +50,12 @@ public class MarineFragment extends Fragment {
 
     private int selectedColor = 0;
     private ActivityResultLauncher<PickVisualMediaRequest> pickMedia;
+    private ImageLoader.Request loadRequest;
+    private ImageLoader.Request namesRequest;
+    private ColorNameTree colorNames;
+    private ColorSampler sampler;
+    private ScrubTouchListener scrubListener;
+    private int selectedTapX, selectedTapY, selectedBitmapX, selectedBitmapY;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -81,18 +90,53 @@ public class MarineFragment extends Fragment {
                 }
         );
 
+        sampler = new ColorSampler(ImageLoader.getInstance(requireContext()));
+        warmColorNames();
+        loadColorNames();
         uploadBtn.setOnClickListener(v -> launchPhotoPicker());
         setupSpinner();
+        setupRadiusSeekBar(view);
 
-        imageViewMarine.setOnTouchListener((v, event) -> {
-            if (event.getAction() == MotionEvent.ACTION_DOWN && currentBitmap != null) {
-                handleImageTap(event);
-            }
-            return true;
+        // Samples follow the finger, once per display frame
+        scrubListener = new ScrubTouchListener((x, y) -> {
+            if (currentBitmap != null) handleImageTap(x, y);
         });
+        imageViewMarine.setOnTouchListener(scrubListener);
 
         generateBtn.setOnClickListener(v -> runTest());
     }
+    // Builds the shared name index in the background so the first test does not wait for it
+    private void warmColorNames() {
+        ImageLoader.getInstance(requireContext()).submit(ColorNameIndex::getInstance,
+                new ImageLoader.Callback<ColorNameIndex>() {
+                    @Override
+                    public void onLoaded(ColorNameIndex index) {}
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("MarineFragment", "Could not build color name index", e);
+                    }
+                });
+    }
+
+    // Dictionary for the displayed name; the tests keep matching on the palette names
+    private void loadColorNames() {
+        Context appContext = requireContext().getApplicationContext();
+        namesRequest = ImageLoader.getInstance(appContext).submit(() -> ColorNameTree.getInstance(appContext),
+                new ImageLoader.Callback<ColorNameTree>() {
+                    @Override
+                    public void onLoaded(ColorNameTree tree) {
+                        colorNames = tree;
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Results show the palette name instead
+                        Log.e("MarineFragment", "Could not load color names", e);
+                    }
+                });
+    }
+
     private void updateGenerateButtonState() {
         boolean enabled = currentBitmap != null;
         generateBtn.setEnabled(enabled);
@@ -100,6 +144,29 @@ public class MarineFragment extends Fragment {
     }
 
 
+    private void setupRadiusSeekBar(View view) {
+        TextView radiusText = view.findViewById(R.id.radiusTxtMarine);
+        SeekBar radiusSeekBar = view.findViewById(R.id.seekbarRadiusMarine);
+        radiusSeekBar.setMax(ColorSampler.MAX_RADIUS);
+        radiusSeekBar.setProgress(sampler.getRadius());
+        radiusText.setText("Sampling radius: " + sampler.getRadius() + " px");
+        radiusSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                sampler.setRadius(progress);
+                radiusText.setText("Sampling radius: " + progress + " px");
+                // Re-sample the current pick so the next test uses the new radius
+                if (selectedColor != 0) showSelection();
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
+        });
+    }
+
     private void setupSpinner() {
         if (getContext() == null) return;
 
@@ -153,66 +220,75 @@ public class MarineFragment extends Fragment {
     }
 
     private void loadImageFromUri(Uri uri) {
-        try {
-            currentBitmap = android.provider.MediaStore.Images.Media.getBitmap(requireContext().getContentResolver(), uri);
-            imageViewMarine.setImageBitmap(currentBitmap);
-            if (pixelIndicator != null) pixelIndicator.clearIndicator();
-
-            imageViewMarine.setVisibility(View.VISIBLE);
-            updateGenerateButtonState();
-            infoText.setText("Tap on the image to select a test color");
-        } catch (IOException e) {
-            Log.e("MarineFragment", "Error loading image", e);
-            Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
-        }
-    }
-
-    private void handleImageTap(MotionEvent event) {
-        float tapX = event.getX();
-        float tapY = event.getY();
+        if (loadRequest != null) loadRequest.cancel();
+        // The image view is hidden until the first image, so it may not have a size yet
+        loadRequest = ImageLoader.getInstance(requireContext()).load(uri,
+                imageViewMarine.getWidth(), imageViewMarine.getHeight(),
+                new ImageLoader.Callback<Bitmap>() {
+                    @Override
+                    public void onLoaded(Bitmap bitmap) {
+                        showImage(bitmap);
+                    }
 
-        int imageViewWidth = imageViewMarine.getWidth();
-        int imageViewHeight = imageViewMarine.getHeight();
-        int bitmapWidth = currentBitmap.getWidth();
-        int bitmapHeight = currentBitmap.getHeight();
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("MarineFragment", "Error loading image", e);
+                        Toast.makeText(getContext(), "Error loading image", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-        float scaleX = (float) bitmapWidth / imageViewWidth;
-        float scaleY = (float) bitmapHeight / imageViewHeight;
+    private void showImage(Bitmap bitmap) {
+        currentBitmap = bitmap;
+        selectedColor = 0;
+        sampler.setBitmap(bitmap);
+        imageViewMarine.setImageBitmap(currentBitmap);
+        if (pixelIndicator != null) {
+            pixelIndicator.setSource(bitmap);
+            pixelIndicator.clearIndicator();
+        }
 
-        int bitmapX = Math.round(tapX * scaleX);
-        int bitmapY = Math.round(tapY * scaleY);
-        bitmapX = Math.max(0, Math.min(bitmapX, bitmapWidth - 1));
-        bitmapY = Math.max(0, Math.min(bitmapY, bitmapHeight - 1));
+        imageViewMarine.setVisibility(View.VISIBLE);
+        updateGenerateButtonState();
+        infoText.setText("Tap on the image to select a test color");
+    }
 
-        selectedColor = getAverageColorInRadius(bitmapX, bitmapY, 3);
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (loadRequest != null) {
+            loadRequest.cancel();
+            loadRequest = null;
+        }
+        if (namesRequest != null) {
+            namesRequest.cancel();
+            namesRequest = null;
+        }
+        if (sampler != null) {
+            sampler.release();
+        }
+        if (scrubListener != null) {
+            scrubListener.cancel();
+        }
+    }
 
-        String hexColor = colorToHex(selectedColor);
-        pixelIndicator.setVisibility(View.VISIBLE);
-        pixelIndicator.updateIndicator((int) tapX, (int) tapY, selectedColor, hexColor);
+    private void handleImageTap(float tapX, float tapY) {
+        long pixel = sampler.map(tapX, tapY, imageViewMarine.getWidth(), imageViewMarine.getHeight());
+        // Touches on the letterbox around the image pick nothing
+        if (pixel == ColorSampler.OUTSIDE) return;
 
+        selectedTapX = (int) tapX;
+        selectedTapY = (int) tapY;
+        selectedBitmapX = ColorSampler.mappedX(pixel);
+        selectedBitmapY = ColorSampler.mappedY(pixel);
+        showSelection();
     }
 
-    private int getAverageColorInRadius(int centerX, int centerY, int radius) {
-        int totalRed = 0, totalGreen = 0, totalBlue = 0, pixelCount = 0;
-
-        for (int x = centerX - radius; x <= centerX + radius; x++) {
-            for (int y = centerY - radius; y <= centerY + radius; y++) {
-                if (x >= 0 && x < currentBitmap.getWidth() && y >= 0 && y < currentBitmap.getHeight()) {
-                    int dx = x - centerX;
-                    int dy = y - centerY;
-                    if (dx * dx + dy * dy <= radius * radius) {
-                        int pixel = currentBitmap.getPixel(x, y);
-                        totalRed += android.graphics.Color.red(pixel);
-                        totalGreen += android.graphics.Color.green(pixel);
-                        totalBlue += android.graphics.Color.blue(pixel);
-                        pixelCount++;
-                    }
-                }
-            }
-        }
-
-        if (pixelCount == 0) return android.graphics.Color.BLACK;
-        return android.graphics.Color.rgb(totalRed / pixelCount, totalGreen / pixelCount, totalBlue / pixelCount);
+    private void showSelection() {
+        selectedColor = sampler.sample(selectedBitmapX, selectedBitmapY);
+        pixelIndicator.setVisibility(View.VISIBLE);
+        pixelIndicator.updateIndicator(selectedTapX, selectedTapY, selectedBitmapX, selectedBitmapY,
+                sampler.getRadius(), selectedColor, sampler.formatHex(selectedColor));
     }
 
     private void runTest() {
@@ -229,32 +305,33 @@ public class MarineFragment extends Fragment {
             return;
         }
 
-        String hex = colorToHex(selectedColor);
-        String colorName = getNearestColorName(selectedColor);
-        String result = getColorMatchResult(selectedTest, selectedColor, colorName);
+        String hex = ColorSampler.toHex(selectedColor);
+        String paletteName = getPaletteColorName(selectedColor);
+        String result = getColorMatchResult(selectedTest, paletteName);
 
-        infoText.setText("Detected Color: " + colorName + "\nHEX: " + hex + "\n" + result);
+        infoText.setText("Detected Color: " + getNearestColorName(selectedColor, paletteName)
+                + "\nHEX: " + hex + "\n" + result);
     }
 
     // ---------- Improved color mapping ----------
 
-    private String getColorMatchResult(String test, int color, String colorName) {
+    private String getColorMatchResult(String test, String colorName) {
         String description;
         switch (test) {
             case "ph test":
-                description = interpretPh(color);
+                description = interpretPh(colorName);
                 break;
             case "ammonia test":
-                description = interpretAmmonia(color);
+                description = interpretAmmonia(colorName);
                 break;
             case "nitrite test":
-                description = interpretNitrite(color);
+                description = interpretNitrite(colorName);
                 break;
             case "nitrate test":
-                description = interpretNitrate(color);
+                description = interpretNitrate(colorName);
                 break;
             case "chlorophyll test":
-                description = interpretChlorophyll(color);
+                description = interpretChlorophyll(colorName);
                 break;
             default:
                 description = "Unknown test type.";
@@ -264,8 +341,8 @@ public class MarineFragment extends Fragment {
 
     // ---- Descriptions per test ----
 
-    private String interpretPh(int color) {
-        String nearest = getNearestColorName(color).toLowerCase();
+    private String interpretPh(String colorName) {
+        String nearest = colorName.toLowerCase();
 
 
         if (nearest.contains("red") || nearest.contains("dark red") || nearest.contains("tomato") || nearest.contains("crimson") || nearest.contains("orange red") || nearest.contains("coral"))
@@ -284,8 +361,8 @@ public class MarineFragment extends Fragment {
             return "Intermediate pH level.";
     }
 
-    private String interpretAmmonia(int color) {
-        String nearest = getNearestColorName(color).toLowerCase();
+    private String interpretAmmonia(String colorName) {
+        String nearest = colorName.toLowerCase();
 
 
         if (nearest.contains("bright yellow") || nearest.contains("yellow") || nearest.contains("lemon yellow") || nearest.contains("golden yellow") || nearest.contains("chartreuse"))
@@ -302,8 +379,8 @@ public class MarineFragment extends Fragment {
             return "Ammonia range indeterminate.";
     }
 
-    private String interpretNitrite(int color) {
-        String nearest = getNearestColorName(color).toLowerCase();
+    private String interpretNitrite(String colorName) {
+        String nearest = colorName.toLowerCase();
 
 
         if (nearest.contains("white") || nearest.contains("aquamarine") || nearest.contains("light cyan") || nearest.contains("sky blue") || nearest.contains("pale lavender blue"))
@@ -322,8 +399,8 @@ public class MarineFragment extends Fragment {
             return "Nitrite range indeterminate.";
     }
 
-    private String interpretNitrate(int color) {
-        String nearest = getNearestColorName(color).toLowerCase();
+    private String interpretNitrate(String colorName) {
+        String nearest = colorName.toLowerCase();
 
 
         if (nearest.contains("white") || nearest.contains("bright lemon yellow") || nearest.contains("light golden yellow") || nearest.contains("sunflower yellow") || nearest.contains("goldenrod") || nearest.contains("lemon yellow"))
@@ -340,8 +417,8 @@ public class MarineFragment extends Fragment {
             return "Nitrate level indeterminate.";
     }
 
-    private String interpretChlorophyll(int color) {
-        String nearest = getNearestColorName(color).toLowerCase();
+    private String interpretChlorophyll(String colorName) {
+        String nearest = colorName.toLowerCase();
 
 
         if (nearest.contains("light green") || nearest.contains("pale green") || nearest.contains("light yellow"))
@@ -361,103 +438,17 @@ public class MarineFragment extends Fragment {
 
     // ---------- Color utilities ----------
 
-    private String colorToHex(int color) {
-        return String.format("#%02X%02X%02X",
-                android.graphics.Color.red(color),
-                android.graphics.Color.green(color),
-                android.graphics.Color.blue(color));
+    // Shown to the user: the perceptually closest dictionary name by CIEDE2000, or the
+    // palette name while the dictionary is loading or failed to load
+    private String getNearestColorName(int color, String paletteName) {
+        int match = colorNames != null ? colorNames.nearest(color) : -1;
+        return match >= 0 ? colorNames.getName(match) : paletteName;
     }
 
     // ---- 50+ shades recognition ----
-    private String getNearestColorName(int color) {
-        float[] hsv = new float[3];
-        android.graphics.Color.colorToHSV(color, hsv);
-
-        // Improved grayscale / neutral color detection
-        if (hsv[1] < 0.10f) {  // Very low saturation → nearly gray/neutral
-            float value = hsv[2];
-            if (value > 0.92f) return "White";
-            else if (value > 0.70f) return "Light Gray";
-            else if (value > 0.40f) return "Gray";
-            else if (value > 0.15f) return "Dark Gray";
-            else return "Black";
-        }
-
-
-        // name, H, S, V (parallel arrays for speed)
-        final String[] names = {
-                "Red","Dark Red","Tomato","Crimson","Orange Red","Coral","Maroon", "Orange","Carrot Orange","Gold",
-                "Goldenrod","Yellow","Bright Yellow", "Lemon Yellow","Golden Yellow","Light Yellow","Pastel Yellow","Yellow Orange", "Green Yellow","Yellow Green",
-                "Inchworm","Chartreuse","Lime Green", "Pure Green","Green","Medium Green","Light Green","Pale Green","Emerald", "Fern Green",
-                "Moss Green","Dark Moss Green","Olive","Olivine","Light Olive Green", "Cyan","Teal","Teal Blue","Blue Green","Aquamarine",
-                "Turquoise", "Light Blue","Sky Blue","Blue","Royal Blue","Dark Blue","Indigo Blue","Indigo", "Violet","Blue Violet",
-                "Dark Magenta","Purple","Medium Purple","Deep Purple", "Magenta","Deep Pink","Pink","Pale Pink","Very Pale Pink","Rose",
-                "White","Brown","Light Cyan", "Pale Lavender Blue", "Light Violet", "Soft Pinkish Purple", "Medium Magenta", "Deep Fuchsia Pink", "Bright Reddish Pink", "Reddish Magenta",
-                "Dark Pinkish Red", "Deep Crimson Red", "Bright Lemon Yellow", "Light Golden Yellow", "Sunflower Yellow", "Amber", "Tangerine", "Scarlet Red", "Dark Crimson", "Lime",
-                "Spring Green", "Kelly Green", "Deep Aqua","Very Dark Cyan"
-
-        };
-
-        final float[] H = {
-                0,0,9,348,16,16,0,30,28,51,
-                43,60,60,58,52,60,60,45,75,85,
-                90,90,120,120,120,120,120,120,140,110,
-                95,95,60,80,75,180,180,190,170,160,
-                174,200,195,240,225,240,260,275,275f,275,
-                300f,285,290,285,300,330,350,350,350,345,
-                0,30,180f,220f,270f,295f,300f, 315f,345f, 330f,
-                350f,355f,58f,50f,54f,45f,25f,8f,350f,85f,
-                100f, 120f, 180f, 145.3f
-
-        };
-
-        final float[] S = {
-                1, 1, 0.72f, 0.83f, 1, 0.68f, 1, 1, 0.85f, 1,
-                0.74f, 1, 1, 0.9f, 0.95f, 0.25f, 0.3f, 1, 1, 1,
-                0.75f, 1, 1, 1, 0.8f, 0.7f, 0.4f, 0.3f, 0.8f, 0.6f,
-                0.6f, 0.7f, 0.8f, 0.55f, 0.4f, 1, 0.8f, 0.8f, 0.7f, 0.5f,
-                0.72f, 0.4f, 0.40f, 1, 0.73f, 1, 0.8f, 0.75f, 0.55f, 0.76f,
-                0.75f, 0.8f, 0.5f, 0.65f, 1, 0.9f, 0.4f, 0.25f, 0.15f, 0.6f,
-                0,0.8f, 0.25f, 0.35f, 0.45f, 0.45f, 0.65f, 0.85f, 0.85f, 0.8f,
-                0.75f, 0.9f, 1f, 0.6f, 0.9f, 0.95f, 0.9f, 1f, 0.85f, 0.80f,
-                0.75f, 0.80f, 1.0f, 1.0f
-
-        };
-
-        final float[] V = {
-                1, 0.55f, 1, 0.86f, 1, 1, 0.4f, 1, 0.9f, 1,
-                0.85f, 1, 1, 1, 0.95f, 1, 0.97f, 1, 1, 1,
-                0.9f, 1, 1, 1, 0.8f, 0.7f, 1, 0.9f, 0.8f, 0.5f,
-                0.5f, 0.35f, 0.5f, 0.7f, 0.8f, 1, 0.6f, 0.7f, 0.7f, 1,
-                0.88f, 1, 1.00f, 1, 0.88f, 0.5f, 0.5f, 0.5f, 0.80f, 0.85f,
-                0.55f, 0.7f, 0.85f, 0.60f, 1, 1, 1, 1, 1, 0.8f,
-                1, 0.4f, 1f, 0.95f, 0.9f, 0.85f, 0.8f, 0.8f, 1f, 0.9f,
-                0.75f, 0.5f, 1f, 0.95f, 0.95f, 0.95f, 1f, 1f, 0.4f, 0.90f,
-                0.85f, 0.80f, 0.545f, 0.251f
-
-        };
-
-        float best = Float.MAX_VALUE;
-        int bestIndex = 0;
-
-        for (int i = 0; i < H.length; i++) {
-            float dh = Math.abs(hsv[0] - H[i]);
-            if (dh > 180f) dh = 360f - dh;
-            dh /= 180f;
-
-            float ds = hsv[1] - S[i];
-            float dv = hsv[2] - V[i];
-
-            // Weighted distance (Hue matters most)
-            float d = dh * dh * 2.5f + ds * ds + dv * dv;
-
-            if (d < best) {
-                best = d;
-                bestIndex = i;
-            }
-        }
-
-        return names[bestIndex];
+    // Coarse palette name the interpret* keyword checks are written against
+    private String getPaletteColorName(int color) {
+        return ColorNameIndex.getInstance().nameOf(color);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.aastha.colorassistapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pin counting of BitmapPool, on plain objects since local tests cannot create bitmaps.
+ */
+public class BitmapPoolTest {
+
+    @Test
+    public void handedBackItemWaitsForItsLastPin() {
+        BitmapPool.Pins<Object> pins = new BitmapPool.Pins<>();
+        Object bitmap = new Object();
+        pins.pin(bitmap);
+        pins.pin(bitmap);
+        assertFalse(pins.unpin(bitmap));
+
+        // Still pinned once, so put() must not pool it
+        assertTrue(pins.deferIfPinned(bitmap));
+        assertTrue(pins.unpin(bitmap));
+        assertFalse(pins.deferIfPinned(bitmap));
+    }
+
+    @Test
+    public void unpinWithoutHandBackKeepsItem() {
+        BitmapPool.Pins<Object> pins = new BitmapPool.Pins<>();
+        Object bitmap = new Object();
+        assertFalse(pins.deferIfPinned(bitmap));
+        pins.pin(bitmap);
+        assertFalse(pins.unpin(bitmap));
+        // Extra unpins of an unpinned item are ignored
+        assertFalse(pins.unpin(bitmap));
+    }
+
+    @Test
+    public void pinsAreByIdentity() {
+        BitmapPool.Pins<String> pins = new BitmapPool.Pins<>();
+        String pinned = new String("chart");
+        pins.pin(pinned);
+        assertFalse(pins.deferIfPinned(new String("chart")));
+        assertTrue(pins.deferIfPinned(pinned));
+    }
+}
@@ -0,0 +1,115 @@
+package com.aastha.colorassistapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * CIEDE2000 against published reference pairs, and the tree against a linear scan.
+ */
+public class ColorNameTreeTest {
+
+    // Sharma, Wu and Dalal's CIEDE2000 test data: L1, a1, b1, L2, a2, b2, difference
+    private static final double[][] REFERENCE_PAIRS = {
+            {50.0000, 2.6772, -79.7751, 50.0000, 0.0000, -82.7485, 2.0425},
+            {50.0000, 3.1571, -77.2803, 50.0000, 0.0000, -82.7485, 2.8615},
+            {50.0000, 2.8361, -74.0200, 50.0000, 0.0000, -82.7485, 3.4412},
+            {50.0000, -1.3802, -84.2814, 50.0000, 0.0000, -82.7485, 1.0000},
+            {50.0000, 0.0000, 0.0000, 50.0000, -1.0000, 2.0000, 2.3669},
+            {50.0000, 2.4900, -0.0010, 50.0000, -2.4900, 0.0009, 7.1792},
+            {50.0000, 2.5000, 0.0000, 73.0000, 25.0000, -18.0000, 27.1492},
+            {50.0000, 2.5000, 0.0000, 50.0000, 3.1736, 0.5854, 1.0000},
+            {60.2574, -34.0099, 36.2677, 60.4626, -34.1751, 39.4387, 1.2644},
+            {90.8027, -2.0831, 1.4410, 91.1528, -1.6435, 0.0447, 1.4441},
+            {2.0776, 0.0795, -1.1350, 0.9033, -0.0636, -0.5514, 0.9082},
+    };
+
+    @Test
+    public void deltaE2000MatchesReferencePairs() {
+        for (double[] p : REFERENCE_PAIRS) {
+            assertEquals(p[6], CieLab.deltaE2000(p[0], p[1], p[2], p[3], p[4], p[5]), 1e-4);
+            assertEquals(p[6], CieLab.deltaE2000(p[3], p[4], p[5], p[0], p[1], p[2]), 1e-4);
+        }
+    }
+
+    @Test
+    public void convertsSrgbToLab() {
+        double[] lab = new double[3];
+        CieLab.fromColor(0xFFFFFFFF, lab, 0);
+        assertEquals(100, lab[0], 1e-3);
+        assertEquals(0, lab[1], 1e-2);
+        assertEquals(0, lab[2], 1e-2);
+        CieLab.fromColor(0xFFFF0000, lab, 0);
+        assertEquals(53.24, lab[0], 0.01);
+        assertEquals(80.09, lab[1], 0.01);
+        assertEquals(67.20, lab[2], 0.01);
+    }
+
+    @Test
+    public void nearestMatchesLinearScan() {
+        Random random = new Random(13);
+        for (int size : new int[]{1, 7, 180, 5000}) {
+            String[] names = new String[size];
+            int[] colors = new int[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = "c" + i;
+                colors[i] = 0xFF000000 | random.nextInt(0x1000000);
+            }
+            // Duplicates make ties, which go to the earlier entry
+            if (size > 1) colors[size - 1] = colors[size / 2];
+            ColorNameTree tree = ColorNameTree.of(names, colors);
+            double[] query = new double[3];
+            double[] entry = new double[3];
+            for (int trial = 0; trial < 500; trial++) {
+                int color = trial < 20 && size > 1 ? colors[random.nextInt(size)] : random.nextInt();
+                CieLab.fromColor(color, query, 0);
+                int expected = -1;
+                double best = Double.MAX_VALUE;
+                for (int i = 0; i < size; i++) {
+                    CieLab.fromColor(colors[i], entry, 0);
+                    double d = CieLab.deltaE2000(query[0], query[1], query[2], entry[0], entry[1], entry[2]);
+                    if (d < best) {
+                        best = d;
+                        expected = i;
+                    }
+                }
+                assertEquals("size " + size + " color " + Integer.toHexString(color), expected, tree.nearest(color));
+                assertEquals(best, tree.lastDistance(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void loadsShippedDictionary() throws IOException {
+        ColorNameTree tree;
+        try (InputStream in = new FileInputStream("src/main/assets/" + ColorNameTree.ASSET)) {
+            tree = ColorNameTree.load(in);
+        }
+        // Named colors plus the systematic vocabulary
+        assertTrue("only " + tree.size() + " names", tree.size() >= 2000);
+        assertEquals("Sage", tree.getName(tree.nearest(0xFFBCB88A)));
+        assertEquals("Teal", tree.getName(tree.nearest(0xFF008080)));
+        assertEquals("Black", tree.getName(tree.nearest(0xFF050505)));
+        assertEquals("Dark Grayish Cerulean", tree.getName(tree.nearest(0xFF405660)));
+    }
+
+    @Test
+    public void skipsComments() throws IOException {
+        ColorNameTree tree = ColorNameTree.load(new ByteArrayInputStream(
+                "# names\nRed,#FF0000\n\nGreen,#00FF00\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, tree.size());
+        assertEquals("Green", tree.getName(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedLine() throws IOException {
+        ColorNameTree.load(new ByteArrayInputStream("Red,#FF0000\nGreen 00FF00\n".getBytes(StandardCharsets.UTF_8)));
+    }
+}
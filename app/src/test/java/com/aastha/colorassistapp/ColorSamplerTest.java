@@ -0,0 +1,79 @@
+package com.aastha.colorassistapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Touch mapping, hex formatting and the window fallback of ColorSampler.
+ */
+public class ColorSamplerTest {
+
+    @Test
+    public void letterboxIsOutside() {
+        // 200x100 bitmap in a 400x400 view: scale 2, bands of 100 above and below
+        assertEquals(ColorSampler.OUTSIDE, ColorSampler.mapFitCenter(200, 50, 400, 400, 200, 100));
+        assertEquals(ColorSampler.OUTSIDE, ColorSampler.mapFitCenter(200, 350, 400, 400, 200, 100));
+
+        long topLeft = ColorSampler.mapFitCenter(0, 100, 400, 400, 200, 100);
+        assertEquals(0, ColorSampler.mappedX(topLeft));
+        assertEquals(0, ColorSampler.mappedY(topLeft));
+        long middle = ColorSampler.mapFitCenter(201, 201, 400, 400, 200, 100);
+        assertEquals(100, ColorSampler.mappedX(middle));
+        assertEquals(50, ColorSampler.mappedY(middle));
+    }
+
+    @Test
+    public void farEdgeMapsToLastPixel() {
+        long corner = ColorSampler.mapFitCenter(400, 300, 400, 400, 200, 100);
+        assertEquals(199, ColorSampler.mappedX(corner));
+        assertEquals(99, ColorSampler.mappedY(corner));
+        assertEquals(ColorSampler.OUTSIDE, ColorSampler.mapFitCenter(10, 10, 0, 0, 200, 100));
+    }
+
+    @Test
+    public void hexMatchesFormat() {
+        Random random = new Random(3);
+        char[] out = new char[ColorSampler.HEX_LENGTH + 2];
+        for (int i = 0; i < 500; i++) {
+            int color = random.nextInt();
+            String expected = String.format("#%02X%02X%02X",
+                    (color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF);
+            assertEquals(expected, ColorSampler.toHex(color));
+            ColorSampler.writeHex(color, out, 2);
+            assertEquals(expected, new String(out, 2, ColorSampler.HEX_LENGTH));
+        }
+    }
+
+    @Test
+    public void windowMeanMatchesIntegralImage() {
+        Random random = new Random(5);
+        int width = 64;
+        int height = 48;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        IntegralImage image = IntegralImage.of(pixels, width, height);
+
+        for (int trial = 0; trial < 200; trial++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            int radius = random.nextInt(ColorSampler.MAX_RADIUS + 1);
+            // Same window ColorSampler.sample reads with getPixels
+            int left = Math.max(0, x - radius);
+            int top = Math.max(0, y - radius);
+            int right = Math.min(width, x + radius + 1);
+            int bottom = Math.min(height, y + radius + 1);
+            int stride = right - left;
+            int[] window = new int[stride * (bottom - top)];
+            for (int row = top; row < bottom; row++) {
+                System.arraycopy(pixels, row * width + left, window, (row - top) * stride, stride);
+            }
+            assertEquals(image.meanInRadius(x, y, radius),
+                    ColorSampler.meanInDisc(window, stride, left, top, right, bottom, x, y, radius));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.aastha.colorassistapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sample size selection for fit-to-view decoding.
+ */
+public class ImageLoaderTest {
+
+    @Test
+    public void smallImagesAreNotSubsampled() {
+        assertEquals(1, ImageLoader.sampleSizeFor(800, 600, 1080, 2340));
+        assertEquals(1, ImageLoader.sampleSizeFor(1080, 2340, 1080, 2340));
+    }
+
+    @Test
+    public void decodedImageStillCoversTheView() {
+        int[][] images = {{8160, 6120}, {6120, 8160}, {4000, 3000}, {12000, 1000}, {1000, 12000}};
+        int[][] views = {{1080, 2340}, {1080, 600}, {320, 240}};
+        for (int[] image : images) {
+            for (int[] view : views) {
+                int sample = ImageLoader.sampleSizeFor(image[0], image[1], view[0], view[1]);
+                float fit = Math.min((float) view[0] / image[0], (float) view[1] / image[1]);
+                // Displayed size needs at least one decoded pixel per screen pixel...
+                assertTrue(image[0] / sample >= (int) (image[0] * fit));
+                assertTrue(image[1] / sample >= (int) (image[1] * fit));
+                // ...and one more halving would drop below it
+                assertTrue(image[0] / (sample * 2) < view[0] && image[1] / (sample * 2) < view[1]);
+            }
+        }
+    }
+
+    @Test
+    public void fiftyMegapixelPhotoForPhonePreview() {
+        // 8160x6120 shown across a 1080px wide screen decodes at 2040x1530
+        assertEquals(4, ImageLoader.sampleSizeFor(8160, 6120, 1080, 2340));
+    }
+}
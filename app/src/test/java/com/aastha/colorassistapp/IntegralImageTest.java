@@ -0,0 +1,111 @@
+package com.aastha.colorassistapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summed-area sampling against the per-pixel loop it replaces.
+ */
+public class IntegralImageTest {
+
+    @Test
+    public void discMatchesPixelLoop() {
+        Random random = new Random(7);
+        int width = 97;
+        int height = 61;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        IntegralImage image = IntegralImage.of(pixels, width, height);
+
+        for (int radius = 0; radius <= IntegralImage.MAX_RADIUS; radius++) {
+            // Corners and edges clip the disc
+            int[][] centers = {{0, 0}, {width - 1, height - 1}, {width / 2, 0}, {3, height / 2},
+                    {random.nextInt(width), random.nextInt(height)}};
+            for (int[] center : centers) {
+                assertEquals("radius " + radius + " at " + Arrays.toString(center),
+                        Integer.toHexString(loopMean(pixels, width, height, center[0], center[1], radius)),
+                        Integer.toHexString(image.meanInRadius(center[0], center[1], radius)));
+            }
+        }
+    }
+
+    @Test
+    public void rectMatchesPixelLoop() {
+        Random random = new Random(11);
+        int width = 40;
+        int height = 30;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        IntegralImage image = IntegralImage.of(pixels, width, height);
+
+        for (int trial = 0; trial < 200; trial++) {
+            int left = random.nextInt(width + 10) - 5;
+            int top = random.nextInt(height + 10) - 5;
+            int right = left + random.nextInt(20);
+            int bottom = top + random.nextInt(20);
+            long red = 0, green = 0, blue = 0;
+            int count = 0;
+            for (int y = Math.max(0, top); y < Math.min(height, bottom); y++) {
+                for (int x = Math.max(0, left); x < Math.min(width, right); x++) {
+                    int color = pixels[y * width + x];
+                    red += (color >> 16) & 0xFF;
+                    green += (color >> 8) & 0xFF;
+                    blue += color & 0xFF;
+                    count++;
+                }
+            }
+            int expected = count == 0 ? 0xFF000000
+                    : 0xFF000000 | (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+            assertEquals(expected, image.meanInRect(left, top, right, bottom));
+        }
+    }
+
+    @Test
+    public void largeWhiteImageStaysExact() {
+        // Whole-image sums overflow every lane; windows still must not
+        int width = 2500;
+        int height = 2000;
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        IntegralImage image = IntegralImage.of(pixels, width, height);
+
+        assertEquals(0xFFFFFFFF, image.meanInRadius(width - 50, height - 50, IntegralImage.MAX_RADIUS));
+        assertEquals(0xFFFFFFFF, image.meanInRect(width - 90, height - 90, width, height));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oversizedWindowIsRejected() {
+        IntegralImage image = IntegralImage.of(new int[200 * 200], 200, 200);
+        image.meanInRect(0, 0, 200, 200);
+    }
+
+    // The loop HomeFragment and MarineFragment used before
+    private static int loopMean(int[] pixels, int width, int height, int centerX, int centerY, int radius) {
+        int totalRed = 0, totalGreen = 0, totalBlue = 0, pixelCount = 0;
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int y = centerY - radius; y <= centerY + radius; y++) {
+                if (x >= 0 && x < width && y >= 0 && y < height) {
+                    int dx = x - centerX;
+                    int dy = y - centerY;
+                    if (dx * dx + dy * dy <= radius * radius) {
+                        int pixel = pixels[y * width + x];
+                        totalRed += (pixel >> 16) & 0xFF;
+                        totalGreen += (pixel >> 8) & 0xFF;
+                        totalBlue += pixel & 0xFF;
+                        pixelCount++;
+                    }
+                }
+            }
+        }
+        if (pixelCount == 0) return 0xFF000000;
+        return 0xFF000000 | (totalRed / pixelCount) << 16 | (totalGreen / pixelCount) << 8 | (totalBlue / pixelCount);
+    }
+}
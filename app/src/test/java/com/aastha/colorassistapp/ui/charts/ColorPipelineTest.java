@@ -0,0 +1,128 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static com.aastha.colorassistapp.ui.charts.PixelAssert.*;
+
+/**
+ * Folding and chaining behaviour of ColorPipeline.
+ */
+public class ColorPipelineTest {
+
+    private static final int PIXELS = 5000;
+
+    @Test
+    public void linearStagesFoldIntoOneMatrix() {
+        ColorPipeline pipeline = new ColorPipeline.Builder()
+                .simulate(ColorTransformer.Mode.DEUTERANOPIA)
+                .daltonize(ColorTransformer.Mode.DEUTERANOPIA)
+                .brightnessContrast(0.05f, 1.2f)
+                .build();
+        assertNotNull(pipeline.getColorMatrix());
+    }
+
+    @Test
+    public void foldedChainMatchesStageByStage() {
+        int[] src = randomPixels();
+        int[] fused = new int[PIXELS];
+        new ColorPipeline.Builder()
+                .simulate(ColorTransformer.Mode.DEUTERANOPIA)
+                .brightnessContrast(0.05f, 1.2f)
+                .build()
+                .transform(src, 0, fused, 0, PIXELS);
+
+        int[] staged = new int[PIXELS];
+        ColorPipeline.forMode(ColorTransformer.Mode.DEUTERANOPIA).transform(src, 0, staged, 0, PIXELS);
+        new ColorPipeline.Builder().brightnessContrast(0.05f, 1.2f).build()
+                .transform(staged, 0, staged, 0, PIXELS);
+
+        // Only the intermediate rounding differs
+        assertTrue(maxChannelError(staged, fused, PIXELS) <= 2);
+    }
+
+    @Test
+    public void kernelStagesRunInOnePass() {
+        int[] src = randomPixels();
+        PixelKernel linearLight = LinearLightKernel.forMode(ColorTransformer.Mode.PROTANOPIA);
+        ColorPipeline pipeline = new ColorPipeline.Builder()
+                .kernel(linearLight)
+                .brightnessContrast(-0.1f, 1.5f)
+                .build();
+        assertNull(pipeline.getColorMatrix());
+
+        int[] fused = new int[PIXELS];
+        pipeline.transform(src, 0, fused, 0, PIXELS);
+
+        int[] staged = new int[PIXELS];
+        linearLight.transform(src, 0, staged, 0, PIXELS);
+        new ColorPipeline.Builder().brightnessContrast(-0.1f, 1.5f).build()
+                .transform(staged, 0, staged, 0, PIXELS);
+
+        assertArrayEquals(staged, fused);
+    }
+
+    @Test
+    public void blendEndpoints() {
+        int[] src = randomPixels();
+        int[] full = new int[PIXELS];
+        int[] blended = new int[PIXELS];
+
+        ColorPipeline.forMode(ColorTransformer.Mode.PROTANOPIA).transform(src, 0, full, 0, PIXELS);
+        new ColorPipeline.Builder().simulate(ColorTransformer.Mode.PROTANOPIA).blend(1f).build()
+                .transform(src, 0, blended, 0, PIXELS);
+        assertArrayEquals(full, blended);
+
+        ColorPipeline none = new ColorPipeline.Builder().simulate(ColorTransformer.Mode.PROTANOPIA).blend(0f).build();
+        assertTrue(none.isIdentity());
+    }
+
+    @Test
+    public void daltonizeMatchesTwoStepReference() {
+        int[] src = randomPixels();
+        ColorPipeline pipeline = new ColorPipeline.Builder().daltonize(ColorTransformer.Mode.PROTANOPIA).build();
+        assertNotNull(pipeline.getColorMatrix());
+        int[] fused = new int[PIXELS];
+        pipeline.transform(src, 0, fused, 0, PIXELS);
+
+        // Simulate, take the error and shift it into green and blue, in floats
+        double[][] sim = ColorTransformer.simulationMatrix(ColorTransformer.Mode.PROTANOPIA);
+        int[] expected = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            double[] rgb = {(src[i] >> 16) & 0xFF, (src[i] >> 8) & 0xFF, src[i] & 0xFF};
+            double[] seen = Matrices.multiply(sim, rgb);
+            double errorR = rgb[0] - seen[0];
+            double errorG = rgb[1] - seen[1];
+            double errorB = rgb[2] - seen[2];
+            int r = clamp(rgb[0]);
+            int g = clamp(rgb[1] + 0.7 * errorR + errorG);
+            int b = clamp(rgb[2] + 0.7 * errorR + errorB);
+            expected[i] = (src[i] & 0xFF000000) | (r << 16) | (g << 8) | b;
+        }
+        assertTrue(maxChannelError(expected, fused, PIXELS) <= 1);
+    }
+
+    @Test
+    public void equalChainsAreEqualKeys() {
+        ColorPipeline a = new ColorPipeline.Builder().simulate(ColorTransformer.Mode.TRITANOPIA).blend(0.5f).build();
+        ColorPipeline b = new ColorPipeline.Builder().simulate(ColorTransformer.Mode.TRITANOPIA).blend(0.5f).build();
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertTrue(ColorPipeline.forMode(ColorTransformer.Mode.NONE).isIdentity());
+    }
+
+    private static int clamp(double value) {
+        return (int) Math.max(0, Math.min(255, value));
+    }
+
+    private static int[] randomPixels() {
+        Random random = new Random(7);
+        int[] pixels = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,83 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static com.aastha.colorassistapp.ui.charts.PixelAssert.*;
+
+/**
+ * Checks the fixed-point kernel against the exact float path over the whole RGB cube.
+ */
+public class FixedPointKernelTest {
+
+    private static final int MAX_CHANNEL_ERROR = 1;
+
+    @Test
+    public void protanopia_withinOneLevel() {
+        assertWithinBound(ColorTransformer.Mode.PROTANOPIA);
+    }
+
+    @Test
+    public void deuteranopia_withinOneLevel() {
+        assertWithinBound(ColorTransformer.Mode.DEUTERANOPIA);
+    }
+
+    @Test
+    public void tritanopia_withinOneLevel() {
+        assertWithinBound(ColorTransformer.Mode.TRITANOPIA);
+    }
+
+    @Test
+    public void none_isIdentity() {
+        int[] pixels = {0xFF123456, 0x80ABCDEF};
+        int[] out = new int[2];
+        ColorTransformer.transformPixelsFixed(pixels, 0, out, 0, 2, ColorTransformer.Mode.NONE);
+        assertArrayEquals(pixels, out);
+    }
+
+    @Test
+    public void allModesMatchesEachMode() {
+        int[] pixels = new int[4096];
+        Random random = new Random(11);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        int[][] fused = new int[3][pixels.length];
+        ColorTransformer.transformPixelsAllModes(pixels, 0, fused[0], 0, fused[1], 0, fused[2], 0, pixels.length);
+        ColorTransformer.Mode[] modes = {
+                ColorTransformer.Mode.PROTANOPIA, ColorTransformer.Mode.DEUTERANOPIA, ColorTransformer.Mode.TRITANOPIA};
+        for (int m = 0; m < modes.length; m++) {
+            int[] single = new int[pixels.length];
+            ColorTransformer.transformPixels(pixels, 0, single, 0, pixels.length, modes[m]);
+            assertArrayEquals(modes[m].toString(), single, fused[m]);
+        }
+    }
+
+    @Test
+    public void alphaIsPreserved() {
+        int color = 0x80C03010;
+        int result = ColorTransformer.transformColor(color, ColorTransformer.Mode.TRITANOPIA);
+        assertEquals(0x80, result >>> 24);
+    }
+
+    private static void assertWithinBound(ColorTransformer.Mode mode) {
+        int[] source = new int[256 * 256];
+        int[] exact = new int[source.length];
+        int[] fixed = new int[source.length];
+        int maxError = 0;
+
+        for (int r = 0; r < 256; r++) {
+            for (int i = 0; i < source.length; i++) {
+                source[i] = ((r * 7) << 24) | (r << 16) | i;
+            }
+            ColorTransformer.transformPixelsExact(source, 0, exact, 0, source.length, mode);
+            ColorTransformer.transformPixelsFixed(source, 0, fixed, 0, source.length, mode);
+
+            maxError = Math.max(maxError, maxChannelError(exact, fixed, source.length));
+        }
+
+        assertTrue(mode + " max channel error " + maxError, maxError <= MAX_CHANNEL_ERROR);
+    }
+}
@@ -0,0 +1,86 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static com.aastha.colorassistapp.ui.charts.PixelAssert.channelError;
+
+/**
+ * Checks the table-driven linear-light kernel against a per-pixel Math.pow reference.
+ */
+public class LinearLightKernelTest {
+
+    private static final int MAX_CHANNEL_ERROR = 1;
+    // Every 3rd level per channel keeps the pow reference quick while covering both sRGB segments
+    private static final int LEVEL_STEP = 3;
+
+    @Test
+    public void protanopia_matchesReference() {
+        assertMatchesReference(ColorTransformer.Mode.PROTANOPIA);
+    }
+
+    @Test
+    public void deuteranopia_matchesReference() {
+        assertMatchesReference(ColorTransformer.Mode.DEUTERANOPIA);
+    }
+
+    @Test
+    public void tritanopia_matchesReference() {
+        assertMatchesReference(ColorTransformer.Mode.TRITANOPIA);
+    }
+
+    @Test
+    public void neutralsStayNeutral() {
+        for (ColorTransformer.Mode mode : new ColorTransformer.Mode[]{
+                ColorTransformer.Mode.PROTANOPIA, ColorTransformer.Mode.DEUTERANOPIA, ColorTransformer.Mode.TRITANOPIA}) {
+            PixelKernel kernel = LinearLightKernel.forMode(mode);
+            int[] pixels = new int[256];
+            for (int v = 0; v < 256; v++) {
+                pixels[v] = 0xFF000000 | (v << 16) | (v << 8) | v;
+            }
+            int[] out = new int[256];
+            kernel.transform(pixels, 0, out, 0, 256);
+            for (int v = 0; v < 256; v++) {
+                assertTrue(mode + " gray " + v, channelError(pixels[v], out[v]) <= MAX_CHANNEL_ERROR);
+            }
+        }
+    }
+
+    @Test
+    public void noneIsIdentity() {
+        assertTrue(LinearLightKernel.forMode(ColorTransformer.Mode.NONE).isIdentity());
+    }
+
+    private static void assertMatchesReference(ColorTransformer.Mode mode) {
+        PixelKernel kernel = LinearLightKernel.forMode(mode);
+        double[][] m = LinearLightKernel.simulationMatrix(mode);
+        int[] source = new int[1];
+        int[] out = new int[1];
+        int maxError = 0;
+
+        for (int r = 0; r < 256; r += LEVEL_STEP) {
+            for (int g = 0; g < 256; g += LEVEL_STEP) {
+                for (int b = 0; b < 256; b += LEVEL_STEP) {
+                    source[0] = 0x80000000 | (r << 16) | (g << 8) | b;
+                    kernel.transform(source, 0, out, 0, 1);
+                    assertEquals("alpha", 0x80, out[0] >>> 24);
+
+                    double lr = LinearLightKernel.srgbToLinear(r / 255.0);
+                    double lg = LinearLightKernel.srgbToLinear(g / 255.0);
+                    double lb = LinearLightKernel.srgbToLinear(b / 255.0);
+                    int expected = (encode(m[0][0] * lr + m[0][1] * lg + m[0][2] * lb) << 16)
+                            | (encode(m[1][0] * lr + m[1][1] * lg + m[1][2] * lb) << 8)
+                            | encode(m[2][0] * lr + m[2][1] * lg + m[2][2] * lb);
+                    maxError = Math.max(maxError, channelError(expected, out[0]));
+                }
+            }
+        }
+
+        assertTrue(mode + " max channel error " + maxError, maxError <= MAX_CHANNEL_ERROR);
+    }
+
+    private static int encode(double linear) {
+        double clamped = Math.max(0, Math.min(1, linear));
+        return (int) Math.round(LinearLightKernel.linearToSrgb(clamped) * 255);
+    }
+}
@@ -0,0 +1,33 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Accuracy helpers shared by the kernel tests.
+ */
+final class PixelAssert {
+
+    private PixelAssert() {}
+
+    /**
+     * Largest difference between the R, G and B levels of two colors.
+     */
+    static int channelError(int a, int b) {
+        int dr = Math.abs(((a >> 16) & 0xFF) - ((b >> 16) & 0xFF));
+        int dg = Math.abs(((a >> 8) & 0xFF) - ((b >> 8) & 0xFF));
+        int db = Math.abs((a & 0xFF) - (b & 0xFF));
+        return Math.max(dr, Math.max(dg, db));
+    }
+
+    /**
+     * Largest channel error over the first count pixels; alpha has to match exactly.
+     */
+    static int maxChannelError(int[] expected, int[] actual, int count) {
+        int maxError = 0;
+        for (int i = 0; i < count; i++) {
+            assertEquals("alpha of pixel " + i, expected[i] >>> 24, actual[i] >>> 24);
+            maxError = Math.max(maxError, channelError(expected[i], actual[i]));
+        }
+        return maxError;
+    }
+}
@@ -0,0 +1,70 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Severity grading: table sanity, endpoints, and caching.
+ */
+public class SeverityMatricesTest {
+
+    private static final ColorTransformer.Mode[] MODES = {
+            ColorTransformer.Mode.PROTANOPIA, ColorTransformer.Mode.DEUTERANOPIA, ColorTransformer.Mode.TRITANOPIA
+    };
+
+    @Test
+    public void tableRowsPreserveWhite() {
+        for (ColorTransformer.Mode mode : MODES) {
+            for (double[][] matrix : SeverityMatrices.table(mode)) {
+                for (double[] row : matrix) {
+                    assertEquals(mode + " row sum", 1.0, row[0] + row[1] + row[2], 1e-5);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void endpointsMatchModels() {
+        for (ColorTransformer.Mode mode : MODES) {
+            assertMatrixEquals(Matrices.identity(), SeverityMatrices.gamma(mode, 0f));
+            assertMatrixEquals(ColorTransformer.simulationMatrix(mode), SeverityMatrices.gamma(mode, 1f));
+            assertMatrixEquals(Matrices.identity(), SeverityMatrices.linear(mode, 0f));
+            assertMatrixEquals(LinearLightKernel.simulationMatrix(mode), SeverityMatrices.linear(mode, 1f));
+        }
+    }
+
+    @Test
+    public void interpolatesBetweenSteps() {
+        double[][] low = SeverityMatrices.gamma(ColorTransformer.Mode.DEUTERANOPIA, 0.5f);
+        double[][] high = SeverityMatrices.gamma(ColorTransformer.Mode.DEUTERANOPIA, 0.6f);
+        double[][] mid = SeverityMatrices.gamma(ColorTransformer.Mode.DEUTERANOPIA, 0.55f);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                assertEquals((low[row][column] + high[row][column]) / 2, mid[row][column], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void recentSeveritiesAreCached() {
+        assertSame(SeverityMatrices.gamma(ColorTransformer.Mode.PROTANOPIA, 0.42f),
+                SeverityMatrices.gamma(ColorTransformer.Mode.PROTANOPIA, 0.42f));
+        assertNull(SeverityMatrices.gamma(ColorTransformer.Mode.NONE, 0.5f));
+    }
+
+    @Test
+    public void fullSeverityIsPlainSimulation() {
+        assertEquals(ColorPipeline.forMode(ColorTransformer.Mode.TRITANOPIA),
+                new ColorPipeline.Builder().simulate(ColorTransformer.Mode.TRITANOPIA, 1f).build());
+        assertTrue(new ColorPipeline.Builder().simulate(ColorTransformer.Mode.TRITANOPIA, 0f).build().isIdentity());
+        assertSame(LinearLightKernel.forMode(ColorTransformer.Mode.PROTANOPIA),
+                LinearLightKernel.forSeverity(ColorTransformer.Mode.PROTANOPIA, 1f));
+    }
+
+    private static void assertMatrixEquals(double[][] expected, double[][] actual) {
+        for (int row = 0; row < 3; row++) {
+            assertArrayEquals(expected[row], actual[row], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.aastha.colorassistapp.ui.charts;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Correctness and throughput of the banded parallel simulation.
+ */
+public class SimulationEngineTest {
+
+    private static final int WIDTH = 2048;
+    private static final int HEIGHT = 1536;
+    private static final int RUNS = 5;
+    private static final PixelKernel KERNEL = ColorTransformer.kernelFor(ColorTransformer.Mode.DEUTERANOPIA);
+
+    @Test
+    public void parallelMatchesSequential() {
+        int[] src = randomImage(WIDTH, 333);
+        int[] expected = new int[src.length];
+        ColorTransformer.transformPixels(src, 0, expected, 0, src.length, ColorTransformer.Mode.DEUTERANOPIA);
+
+        // Odd counts leave uneven bands; more threads than cores still has to be right
+        for (int threads : new int[]{1, 2, 3, 4, 8}) {
+            int[] dst = new int[src.length];
+            new SimulationEngine(threads).transform(rowsOf(src), dst, WIDTH, 333, KERNEL, () -> false);
+            assertArrayEquals("threads " + threads, expected, dst);
+        }
+    }
+
+    /**
+     * Reports pixels per second for 1..N threads. Timing depends on the host, so it
+     * asserts nothing and only runs when picked explicitly.
+     */
+    @Ignore("Benchmark; run by hand")
+    @Test
+    public void throughputByThreadCount() {
+        int[] src = randomImage(WIDTH, HEIGHT);
+        int[] dst = new int[src.length];
+        for (int threads : threadCounts()) {
+            SimulationEngine engine = new SimulationEngine(threads);
+            // Warm up the tables and the JIT before timing
+            engine.transform(rowsOf(src), dst, WIDTH, HEIGHT, KERNEL, () -> false);
+            long bestNanos = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                engine.transform(rowsOf(src), dst, WIDTH, HEIGHT, KERNEL, () -> false);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            }
+            System.out.println(String.format("SimulationEngine %d thread(s): %.1f Mpx/s",
+                    threads, (double) WIDTH * HEIGHT / bestNanos * 1000.0));
+        }
+    }
+
+    // 1, 2, 4... up to the core count, which is always included
+    private static int[] threadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int count = 1;
+        for (int threads = 1; threads < cores; threads *= 2) count++;
+        int[] counts = new int[count];
+        for (int i = 0, threads = 1; i < count; i++, threads *= 2) {
+            counts[i] = Math.min(threads, cores);
+        }
+        return counts;
+    }
+
+    private static SimulationEngine.RowSource rowsOf(int[] src) {
+        return (buffer, offset, y, rows) -> System.arraycopy(src, y * WIDTH, buffer, offset, rows * WIDTH);
+    }
+
+    private static int[] randomImage(int width, int height) {
+        Random random = new Random(42);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,154 @@
+package com.aastha.colorassistapp.ui.marine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The name table against the palette scan MarineFragment used to run on every call.
+ */
+public class ColorNameIndexTest {
+
+    @Test
+    public void fullCubeMatchesPaletteScan() {
+        ColorNameIndex index = ColorNameIndex.getInstance();
+        for (int color = 0; color < 1 << 24; color++) {
+            String expected = referenceName(0xFF000000 | color);
+            String actual = index.nameOf(0xFF000000 | color);
+            if (!expected.equals(actual)) {
+                fail(String.format("#%06X: expected %s but was %s", color, expected, actual));
+            }
+        }
+    }
+
+    @Test
+    public void alphaIsIgnored() {
+        ColorNameIndex index = ColorNameIndex.getInstance();
+        assertEquals(index.nameOf(0xFF2E8B57), index.nameOf(0x002E8B57));
+        assertEquals("White", index.nameOf(0xFFFFFFFF));
+        assertEquals("Black", index.nameOf(0xFF000000));
+    }
+
+    // android.graphics.Color.colorToHSV, which is Skia's SkRGBToHSV in float
+    private static void colorToHSV(int color, float[] hsv) {
+        int r = (color >> 16) & 0xFF;
+        int g = (color >> 8) & 0xFF;
+        int b = color & 0xFF;
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int delta = max - min;
+        float v = max / 255f;
+        if (delta == 0) {
+            hsv[0] = 0;
+            hsv[1] = 0;
+            hsv[2] = v;
+            return;
+        }
+        float s = (float) delta / max;
+        float h;
+        if (r == max) {
+            h = (float) (g - b) / delta;
+        } else if (g == max) {
+            h = 2 + (float) (b - r) / delta;
+        } else {
+            h = 4 + (float) (r - g) / delta;
+        }
+        h *= 60;
+        if (h < 0) h += 360;
+        hsv[0] = h;
+        hsv[1] = s;
+        hsv[2] = v;
+    }
+
+    // MarineFragment.getNearestColorName as it was before the index
+    private static String referenceName(int color) {
+        float[] hsv = new float[3];
+        colorToHSV(color, hsv);
+
+        // Improved grayscale / neutral color detection
+        if (hsv[1] < 0.10f) {  // Very low saturation → nearly gray/neutral
+            float value = hsv[2];
+            if (value > 0.92f) return "White";
+            else if (value > 0.70f) return "Light Gray";
+            else if (value > 0.40f) return "Gray";
+            else if (value > 0.15f) return "Dark Gray";
+            else return "Black";
+        }
+
+
+        // name, H, S, V (parallel arrays for speed)
+        final String[] names = {
+                "Red","Dark Red","Tomato","Crimson","Orange Red","Coral","Maroon", "Orange","Carrot Orange","Gold",
+                "Goldenrod","Yellow","Bright Yellow", "Lemon Yellow","Golden Yellow","Light Yellow","Pastel Yellow","Yellow Orange", "Green Yellow","Yellow Green",
+                "Inchworm","Chartreuse","Lime Green", "Pure Green","Green","Medium Green","Light Green","Pale Green","Emerald", "Fern Green",
+                "Moss Green","Dark Moss Green","Olive","Olivine","Light Olive Green", "Cyan","Teal","Teal Blue","Blue Green","Aquamarine",
+                "Turquoise", "Light Blue","Sky Blue","Blue","Royal Blue","Dark Blue","Indigo Blue","Indigo", "Violet","Blue Violet",
+                "Dark Magenta","Purple","Medium Purple","Deep Purple", "Magenta","Deep Pink","Pink","Pale Pink","Very Pale Pink","Rose",
+                "White","Brown","Light Cyan", "Pale Lavender Blue", "Light Violet", "Soft Pinkish Purple", "Medium Magenta", "Deep Fuchsia Pink", "Bright Reddish Pink", "Reddish Magenta",
+                "Dark Pinkish Red", "Deep Crimson Red", "Bright Lemon Yellow", "Light Golden Yellow", "Sunflower Yellow", "Amber", "Tangerine", "Scarlet Red", "Dark Crimson", "Lime",
+                "Spring Green", "Kelly Green", "Deep Aqua","Very Dark Cyan"
+
+        };
+
+        final float[] H = {
+                0,0,9,348,16,16,0,30,28,51,
+                43,60,60,58,52,60,60,45,75,85,
+                90,90,120,120,120,120,120,120,140,110,
+                95,95,60,80,75,180,180,190,170,160,
+                174,200,195,240,225,240,260,275,275f,275,
+                300f,285,290,285,300,330,350,350,350,345,
+                0,30,180f,220f,270f,295f,300f, 315f,345f, 330f,
+                350f,355f,58f,50f,54f,45f,25f,8f,350f,85f,
+                100f, 120f, 180f, 145.3f
+
+        };
+
+        final float[] S = {
+                1, 1, 0.72f, 0.83f, 1, 0.68f, 1, 1, 0.85f, 1,
+                0.74f, 1, 1, 0.9f, 0.95f, 0.25f, 0.3f, 1, 1, 1,
+                0.75f, 1, 1, 1, 0.8f, 0.7f, 0.4f, 0.3f, 0.8f, 0.6f,
+                0.6f, 0.7f, 0.8f, 0.55f, 0.4f, 1, 0.8f, 0.8f, 0.7f, 0.5f,
+                0.72f, 0.4f, 0.40f, 1, 0.73f, 1, 0.8f, 0.75f, 0.55f, 0.76f,
+                0.75f, 0.8f, 0.5f, 0.65f, 1, 0.9f, 0.4f, 0.25f, 0.15f, 0.6f,
+                0,0.8f, 0.25f, 0.35f, 0.45f, 0.45f, 0.65f, 0.85f, 0.85f, 0.8f,
+                0.75f, 0.9f, 1f, 0.6f, 0.9f, 0.95f, 0.9f, 1f, 0.85f, 0.80f,
+                0.75f, 0.80f, 1.0f, 1.0f
+
+        };
+
+        final float[] V = {
+                1, 0.55f, 1, 0.86f, 1, 1, 0.4f, 1, 0.9f, 1,
+                0.85f, 1, 1, 1, 0.95f, 1, 0.97f, 1, 1, 1,
+                0.9f, 1, 1, 1, 0.8f, 0.7f, 1, 0.9f, 0.8f, 0.5f,
+                0.5f, 0.35f, 0.5f, 0.7f, 0.8f, 1, 0.6f, 0.7f, 0.7f, 1,
+                0.88f, 1, 1.00f, 1, 0.88f, 0.5f, 0.5f, 0.5f, 0.80f, 0.85f,
+                0.55f, 0.7f, 0.85f, 0.60f, 1, 1, 1, 1, 1, 0.8f,
+                1, 0.4f, 1f, 0.95f, 0.9f, 0.85f, 0.8f, 0.8f, 1f, 0.9f,
+                0.75f, 0.5f, 1f, 0.95f, 0.95f, 0.95f, 1f, 1f, 0.4f, 0.90f,
+                0.85f, 0.80f, 0.545f, 0.251f
+
+        };
+
+        float best = Float.MAX_VALUE;
+        int bestIndex = 0;
+
+        for (int i = 0; i < H.length; i++) {
+            float dh = Math.abs(hsv[0] - H[i]);
+            if (dh > 180f) dh = 360f - dh;
+            dh /= 180f;
+
+            float ds = hsv[1] - S[i];
+            float dv = hsv[2] - V[i];
+
+            // Weighted distance (Hue matters most)
+            float d = dh * dh * 2.5f + ds * ds + dv * dv;
+
+            if (d < best) {
+                best = d;
+                bestIndex = i;
+            }
+        }
+
+        return names[bestIndex];
+    }
+}